@@ -0,0 +1,250 @@
+package com.demo.admission;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.demo.apierror.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control in front of the costly endpoints: per-key token buckets answer 429 with
+ * Retry-After, and per-route adaptive concurrency limits shed excess load with 503 before it
+ * queues on Tomcat threads and the connection pool. Routes are configured in {@link AdmissionProperties}.
+ * A request rejected by any matching route is charged to none of them. "ip" keys use
+ * {@link HttpServletRequest#getRemoteAddr()}, which Tomcat's RemoteIpValve resolves to the client
+ * behind trusted proxies (server.forward-headers-strategy=native).
+ */
+public class AdmissionFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    private static final class RouteState {
+        final AdmissionProperties.Route route;
+        final PathPattern pattern;
+        final String keyParam;          // null = client IP
+        final TokenBuckets buckets;     // null = no rate limit
+        final ConcurrencyLimit limit;   // null = no concurrency limit
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder totalLatencyNanos = new LongAdder();
+
+        RouteState(AdmissionProperties.Route route, int maxKeys) {
+            this.route = route;
+            this.pattern = PathPatternParser.defaultInstance.parse(route.path());
+            if ("ip".equals(route.key())) {
+                this.keyParam = null;
+            } else if (route.key().startsWith("param:")) {
+                this.keyParam = route.key().substring("param:".length());
+            } else {
+                throw new IllegalStateException("Unsupported admission key '" + route.key() + "' for route " + route.name());
+            }
+            this.buckets = route.capacity() > 0 ? new TokenBuckets(route.capacity(), route.refillPeriod(), maxKeys) : null;
+            this.limit = route.maxConcurrency() > 0
+                    ? new ConcurrencyLimit(route.initialConcurrency(), route.minConcurrency(), route.maxConcurrency(),
+                            route.latencyTarget().toNanos())
+                    : null;
+        }
+
+        boolean matches(HttpServletRequest request, PathContainer path) {
+            return (route.method().isEmpty() || route.method().equalsIgnoreCase(request.getMethod()))
+                    && pattern.matches(path);
+        }
+
+        String key(HttpServletRequest request) {
+            if (keyParam == null) {
+                return request.getRemoteAddr();
+            }
+            String value = request.getParameter(keyParam);
+            return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final List<RouteState> routes = new ArrayList<>();
+    private final ObjectMapper objectMapper;
+
+    public AdmissionFilter(AdmissionProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (AdmissionProperties.Route route : properties.routes()) {
+            routes.add(new RouteState(route, properties.maxKeys()));
+        }
+        log.info("Admission control active on {} route(s)", routes.size());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        List<RouteState> matched = null;
+        for (RouteState state : routes) {
+            if (state.matches(request, path)) {
+                if (matched == null) {
+                    matched = new ArrayList<>(2);
+                }
+                matched.add(state);
+            }
+        }
+        if (matched == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // 🔒 Rate limits first: a rejected request must not occupy a concurrency slot
+        String[] keys = new String[matched.size()];
+        for (int i = 0; i < matched.size(); i++) {
+            RouteState state = matched.get(i);
+            if (state.buckets == null) {
+                continue;
+            }
+            String key = state.key(request);
+            long waitNanos = key == null ? 0 : state.buckets.tryAcquire(key);
+            if (waitNanos > 0) {
+                refundTokens(matched, keys, i);
+                state.rateLimited.increment();
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMITED",
+                        "Too many requests for " + state.route.name() + ".", retryAfter);
+                return;
+            }
+            keys[i] = key;
+        }
+
+        int[] slots = new int[matched.size()];
+        for (int i = 0; i < matched.size(); i++) {
+            RouteState state = matched.get(i);
+            if (state.limit == null) {
+                continue;
+            }
+            slots[i] = state.limit.tryAcquire();
+            if (slots[i] < 0) {
+                for (int j = 0; j < i; j++) {
+                    if (matched.get(j).limit != null) {
+                        matched.get(j).limit.release(slots[j], 0, false);
+                    }
+                }
+                refundTokens(matched, keys, matched.size());
+                state.shed.increment();
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, "OVERLOADED",
+                        "Too many concurrent requests for " + state.route.name() + ".", 1);
+                return;
+            }
+        }
+
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            long latency = System.nanoTime() - started;
+            for (int i = 0; i < matched.size(); i++) {
+                RouteState state = matched.get(i);
+                state.admitted.increment();
+                state.totalLatencyNanos.add(latency);
+                if (state.limit != null) {
+                    state.limit.release(slots[i], latency, failed);
+                }
+            }
+        }
+    }
+
+    // 🧹 A rejected request was not served: give back the tokens it took from the routes before
+    private static void refundTokens(List<RouteState> matched, String[] keys, int upTo) {
+        for (int i = 0; i < upTo; i++) {
+            if (keys[i] != null) {
+                matched.get(i).buckets.refund(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * ✅ Per-route limits and admission counters.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (RouteState state : routes) {
+            long admitted = state.admitted.sum();
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("path", state.route.path());
+            route.put("key", state.route.key());
+            route.put("admitted", admitted);
+            route.put("rateLimited", state.rateLimited.sum());
+            route.put("shed", state.shed.sum());
+            route.put("avgLatencyMs", admitted == 0 ? 0.0 : state.totalLatencyNanos.sum() / 1_000_000.0 / admitted);
+            if (state.buckets != null) {
+                route.put("trackedKeys", state.buckets.size());
+            }
+            if (state.limit != null) {
+                route.put("concurrencyLimit", (int) state.limit.limit());
+                route.put("inFlight", state.limit.inFlight());
+            }
+            stats.put(state.route.name(), route);
+        }
+        return stats;
+    }
+
+    // 📊 admission_requests_total{route,result}, admission_concurrency_limit{route}, admission_inflight{route}
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (RouteState state : routes) {
+            String name = state.route.name();
+            bindResult(registry, name, "admitted", state.admitted);
+            bindResult(registry, name, "rate_limited", state.rateLimited);
+            bindResult(registry, name, "shed", state.shed);
+            if (state.limit != null) {
+                Gauge.builder("admission.concurrency.limit", state.limit, ConcurrencyLimit::limit)
+                        .tag("route", name).register(registry);
+                Gauge.builder("admission.inflight", state.limit, ConcurrencyLimit::inFlight)
+                        .tag("route", name).register(registry);
+            }
+        }
+    }
+
+    private static void bindResult(MeterRegistry registry, String route, String result, LongAdder count) {
+        FunctionCounter.builder("admission.requests", count, LongAdder::sum)
+                .tag("route", route).tag("result", result).register(registry);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String code, String message, long retryAfterSeconds)
+            throws IOException {
+        ApiError error = new ApiError(
+            status.value(),
+            status.getReasonPhrase(),
+            code,
+            message,
+            "Retry after " + retryAfterSeconds + " second(s).",
+            LocalDateTime.now()
+        );
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,40 @@
+package com.demo.admission;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-route admission rules (admission.routes[n].*). Every route whose method and path match
+ * a request applies: list one route per key to limit the same endpoint by email and by IP.
+ */
+@ConfigurationProperties("admission")
+public record AdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maxKeys,
+        @DefaultValue List<Route> routes) {
+
+    /**
+     * @param method            HTTP method, or empty for any
+     * @param path              Spring path pattern, e.g. /api/invoices/{orderId}/download
+     * @param key               bucket key: "ip" or "param:&lt;name&gt;"; requests without the parameter skip the bucket
+     * @param capacity          token bucket burst size; 0 disables rate limiting for the route
+     * @param refillPeriod      time to earn one token back
+     * @param maxConcurrency    upper bound of the adaptive in-flight limit; 0 disables it
+     * @param latencyTarget     responses slower than this (or 5xx) shrink the in-flight limit
+     */
+    public record Route(
+            String name,
+            @DefaultValue("") String method,
+            String path,
+            @DefaultValue("ip") String key,
+            @DefaultValue("0") int capacity,
+            @DefaultValue("1s") Duration refillPeriod,
+            @DefaultValue("0") int initialConcurrency,
+            @DefaultValue("1") int minConcurrency,
+            @DefaultValue("0") int maxConcurrency,
+            @DefaultValue("500ms") Duration latencyTarget) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Adaptive in-flight limit for one route (AIMD): every fast, successful response that found the
+ * route busy raises the limit by 1/limit; a slow (over the latency target) or 5xx response cuts it
+ * by 10%, at most once per latency target so one slow burst does not collapse it to the minimum.
+ */
+final class ConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTargetNanos = latencyTargetNanos;
+        int initial = initialLimit > 0 ? initialLimit : this.maxLimit;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(Math.min(this.maxLimit, Math.max(this.minLimit, initial))));
+    }
+
+    /**
+     * Returns the in-flight count seen on entry (pass it to {@link #release}), or -1 when the route is full.
+     */
+    int tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit()) {
+            inFlight.decrementAndGet();
+            return -1;
+        }
+        return current;
+    }
+
+    void release(int inFlightOnEntry, long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        if (failed || latencyNanos > latencyTargetNanos) {
+            long now = System.nanoTime();
+            long last = lastDecreaseNanos.get();
+            if (now - last >= latencyTargetNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+                update(limit -> Math.max(minLimit, limit * BACKOFF_RATIO));
+            }
+        } else if (inFlightOnEntry * 2 >= limit()) {
+            update(limit -> Math.min(maxLimit, limit + 1.0 / limit)); // only grow while the limit is actually in use
+        }
+    }
+
+    double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator step) {
+        while (true) {
+            long bits = limitBits.get();
+            long next = Double.doubleToLongBits(step.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == next || limitBits.compareAndSet(bits, next)) {
+                return;
+            }
+        }
+    }
+}
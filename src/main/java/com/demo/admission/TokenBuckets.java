@@ -0,0 +1,62 @@
+package com.demo.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token buckets for one route, one per key, kept as a single AtomicLong each (GCRA form:
+ * the "theoretical arrival time" at which the bucket is empty again) and updated by CAS,
+ * so concurrent requests never lock. Idle buckets are full and simply expire from the cache.
+ */
+final class TokenBuckets {
+
+    private final long intervalNanos;   // one token per interval
+    private final long burstNanos;      // (capacity - 1) intervals of slack
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBuckets(int capacity, Duration refillPeriod, int maxKeys) {
+        this.intervalNanos = refillPeriod.toNanos();
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(intervalNanos * capacity))
+                .build();
+    }
+
+    /**
+     * Take one token for the key; returns 0 when admitted, otherwise the nanos until a token is available.
+     */
+    long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = tat.get();
+            long start = current == Long.MIN_VALUE ? now : Math.max(current, now);
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Give back a token taken by {@link #tryAcquire} for a request that was rejected further on.
+     */
+    void refund(String key) {
+        AtomicLong tat = buckets.getIfPresent(key);
+        if (tat != null) {
+            tat.accumulateAndGet(intervalNanos, (current, interval) ->
+                    current == Long.MIN_VALUE ? current : current - interval);
+        }
+    }
+
+    long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,78 @@
+package com.demo.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Moves every id_blocks segment past the highest id already in its table
+ * before the application starts inserting. Rows written while these tables
+ * used AUTO_INCREMENT ids would otherwise collide with the first pooled block.
+ */
+@Component
+public class IdBlockSeeder implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdBlockSeeder.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdBlockSeeder(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String[]> segments = new ArrayList<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .forEachEntityDescriptor(persister -> {
+                    if (persister.getGenerator() instanceof PooledIdGenerator generator
+                            && persister instanceof AbstractEntityPersister entityPersister) {
+                        segments.add(new String[] {
+                                generator.getSegmentValue(),
+                                entityPersister.getTableName(),
+                                entityPersister.getIdentifierColumnNames()[0]});
+                    }
+                });
+        for (String[] segment : segments) {
+            seed(segment[0], segment[1], segment[2]);
+        }
+    }
+
+    private void seed(String segment, String table, String idColumn) {
+        String nextId = "COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table;
+        String floor = "(SELECT " + nextId + ")";
+        String raise = "UPDATE " + PooledIdGenerator.BLOCK_TABLE
+                + " SET " + PooledIdGenerator.VALUE_COLUMN + " = " + floor
+                + " WHERE " + PooledIdGenerator.SEGMENT_COLUMN + " = ? AND " + PooledIdGenerator.VALUE_COLUMN + " < " + floor;
+        String insert = "INSERT INTO " + PooledIdGenerator.BLOCK_TABLE
+                + " (" + PooledIdGenerator.SEGMENT_COLUMN + ", " + PooledIdGenerator.VALUE_COLUMN + ")"
+                + " SELECT ?, " + nextId;
+
+        Integer present = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + PooledIdGenerator.BLOCK_TABLE
+                + " WHERE " + PooledIdGenerator.SEGMENT_COLUMN + " = ?", Integer.class, segment);
+        if (present != null && present > 0) {
+            if (jdbcTemplate.update(raise, segment) > 0) {
+                logger.info("Raised id block '{}' past existing rows in {}", segment, table);
+            }
+            return;
+        }
+        try {
+            jdbcTemplate.update(insert, segment);
+        } catch (DuplicateKeyException e) {
+            // Another node seeded it first; make sure it is still past our rows
+            jdbcTemplate.update(raise, segment);
+        }
+    }
+}
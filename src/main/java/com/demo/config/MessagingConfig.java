@@ -0,0 +1,29 @@
+package com.demo.config;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.demo.messaging.EmbeddedEventBroker;
+import com.demo.messaging.EventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Default event publisher for the outbox relay: the embedded broker.
+ * Declare another {@link EventPublisher} bean (e.g. a Kafka producer) to replace it.
+ */
+@Configuration
+public class MessagingConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(EventPublisher.class)
+    public EmbeddedEventBroker embeddedEventBroker(
+            @Value("${outbox.broker.retained-per-topic:10000}") int retainedPerTopic,
+            @Value("${outbox.broker.dir:}") String directory,
+            ObjectMapper objectMapper) {
+        return new EmbeddedEventBroker(retainedPerTopic, directory.isBlank() ? null : Path.of(directory), objectMapper);
+    }
+}
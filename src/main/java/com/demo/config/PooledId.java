@@ -0,0 +1,24 @@
+package com.demo.config;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Identifier drawn from a block of ids reserved in the shared id_blocks table
+ * (see {@link PooledIdGenerator}). Unlike IDENTITY, ids are known before the
+ * INSERT, so Hibernate can send inserts as JDBC batches.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledId {
+
+    /** Segment (row) in id_blocks; by convention the entity's table name. */
+    String value();
+}
@@ -0,0 +1,49 @@
+package com.demo.config;
+
+import java.util.Properties;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Table-backed pooled-lo id allocation: each node reserves a block of
+ * {@code demo.id.block-size} ids with one UPDATE on id_blocks and hands them
+ * out from memory. Works on MySQL, which has no sequences.
+ */
+public class PooledIdGenerator extends TableGenerator {
+
+    public static final String BLOCK_TABLE = "id_blocks";
+    public static final String SEGMENT_COLUMN = "entity_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final String BLOCK_SIZE_SETTING = "demo.id.block-size";
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private final String segment;
+
+    public PooledIdGenerator(PooledId config) {
+        this.segment = config.value();
+    }
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        int blockSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(BLOCK_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_BLOCK_SIZE);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(BLOCK_SIZE_SETTING + " must be positive");
+        }
+
+        params.setProperty(TABLE_PARAM, BLOCK_TABLE);
+        params.setProperty(SEGMENT_COLUMN_PARAM, SEGMENT_COLUMN);
+        params.setProperty(VALUE_COLUMN_PARAM, VALUE_COLUMN);
+        params.setProperty(SEGMENT_VALUE_PARAM, segment);
+        params.setProperty(INITIAL_PARAM, "1");
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        // pooled-lo: the stored value is the first id of the next free block
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.demo.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.demo.apierror.ApiError;
+import com.demo.dto.FieldSelection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Applies an optional {@code fields=} sparse fieldset to JSON responses of the REST controllers.
+ * Services read the same parameter to skip queries for data that would be dropped here.
+ */
+@RestControllerAdvice(basePackages = "com.demo.controller")
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return MappingJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || body instanceof ApiError || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        String spec = servletRequest.getServletRequest().getParameter("fields");
+        FieldSelection fields = FieldSelection.parse(spec);
+        return fields.isAll() ? body : fields.apply(objectMapper.valueToTree(body));
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.demo.admission.AdmissionFilter;
+
+@RestController
+@RequestMapping("/api/admission")
+public class AdmissionController {
+
+    @Autowired
+    private ObjectProvider<AdmissionFilter> admissionFilter;
+
+    // ✅ Per-route rate-limit and concurrency-limit counters
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        AdmissionFilter filter = admissionFilter.getIfAvailable();
+        if (filter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(filter.getStats());
+    }
+}
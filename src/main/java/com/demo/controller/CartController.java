@@ -4,7 +4,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.demo.entity.Cart;
+import com.demo.dto.CartView;
+import com.demo.dto.FieldSelection;
 import com.demo.service.CartService;
 
 @RestController
@@ -13,26 +14,32 @@ public class CartController {
 	@Autowired
 	private  CartService cartService;
     
-    // ✅ Get cart by ID
+    // ✅ Get cart by ID (optional fields=, e.g. fields=id,total)
     @GetMapping("/{cartId}")
-    public ResponseEntity<Cart> getCart(@PathVariable Long cartId) {
-        return ResponseEntity.ok(cartService.getCart(cartId));
+    public ResponseEntity<CartView> getCart(
+            @PathVariable Long cartId,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(cartService.getCartView(cartId, FieldSelection.parse(fields)));
     }
 
     // ✅ Add item to cart
     @PostMapping("/{cartId}/add/{productId}")
-    public ResponseEntity<Cart> addItem(
+    public ResponseEntity<CartView> addItem(
             @PathVariable Long cartId,
             @PathVariable Long productId,
-            @RequestParam int quantity) {
-        return ResponseEntity.ok(cartService.addItemToCart(cartId, productId, quantity));
+            @RequestParam int quantity,
+            @RequestParam(required = false) String fields) {
+        cartService.addItemToCart(cartId, productId, quantity);
+        return ResponseEntity.ok(cartService.getCartView(cartId, FieldSelection.parse(fields)));
     }
 
     // ✅ Remove item from cart
     @DeleteMapping("/{cartId}/remove/{itemId}")
-    public ResponseEntity<Cart> removeItem(
+    public ResponseEntity<CartView> removeItem(
             @PathVariable Long cartId,
-            @PathVariable Long itemId) {
-        return ResponseEntity.ok(cartService.removeItemFromCart(cartId, itemId));
+            @PathVariable Long itemId,
+            @RequestParam(required = false) String fields) {
+        cartService.removeItemFromCart(cartId, itemId);
+        return ResponseEntity.ok(cartService.getCartView(cartId, FieldSelection.parse(fields)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.demo.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.demo.messaging.BrokerMessage;
+import com.demo.messaging.EmbeddedEventBroker;
+import com.demo.service.OutboxRelay;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectProvider<EmbeddedEventBroker> embeddedBroker;
+
+    // ✅ Outbox backlog and relay counters
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+
+    // ✅ Read a topic of the embedded broker (e.g. order.events, inventory.events) from an offset
+    @GetMapping("/{topic}")
+    public ResponseEntity<List<BrokerMessage>> readTopic(
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "0") long fromOffset,
+            @RequestParam(defaultValue = "100") int max) {
+        EmbeddedEventBroker broker = embeddedBroker.getIfAvailable();
+        if (broker == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(broker.read(topic, fromOffset, Math.min(max, 1000)));
+    }
+}
@@ -52,6 +52,28 @@ public class InventoryController {
         return ResponseEntity.ok(lowStockProducts);
     }
 
+    @PostMapping("/{productId}/shards")
+    public ResponseEntity<String> enableSharding(
+            @PathVariable Long productId,
+            @RequestParam int slots
+    ) {
+        inventoryService.enableSharding(productId, slots);
+        logger.info("Stock of product ID {} sharded across {} slots", productId, slots);
+        return ResponseEntity.ok("Stock sharded across " + slots + " slots");
+    }
+
+    @DeleteMapping("/{productId}/shards")
+    public ResponseEntity<String> disableSharding(@PathVariable Long productId) {
+        inventoryService.disableSharding(productId);
+        logger.info("Stock sharding disabled for product ID {}", productId);
+        return ResponseEntity.ok("Stock sharding disabled");
+    }
+
+    @GetMapping("/{productId}/available")
+    public ResponseEntity<Integer> getAvailableQuantity(@PathVariable Long productId) {
+        return ResponseEntity.ok(inventoryService.getAvailableQuantity(productId));
+    }
+
     @GetMapping("/validate")
     public ResponseEntity<String> validateStock(
             @RequestParam Long productId,
@@ -1,53 +1,192 @@
 package com.demo.controller;
 
-import com.demo.entity.Invoice;
+import com.demo.dto.InvoiceView;
+import com.demo.dto.StoredInvoicePdf;
+import com.demo.entity.InvoiceStatus;
+import com.demo.service.InvoiceBatchService;
+import com.demo.service.InvoiceExportService;
 import com.demo.service.InvoiceService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/invoices")
 public class InvoiceController {
 
+    // Tomcat NIO sendfile: the connector copies the file to the socket in the kernel
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Autowired
     private InvoiceService invoiceService;
 
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+
     /**
      * ✅ Return invoice details for a given order.
      * If invoice already exists, return it. Otherwise, generate and persist.
      */
     @GetMapping("/generateInvoice/{orderId}")
-    public ResponseEntity<Invoice> getInvoiceByOrderId(@PathVariable Long orderId) {
-        Invoice invoice = invoiceService.getOrCreateInvoice(orderId);
-        return ResponseEntity.ok(invoice);
+    public ResponseEntity<InvoiceView> getInvoiceByOrderId(@PathVariable Long orderId) {
+        return ResponseEntity.ok(invoiceService.getInvoiceView(orderId));
     }
 
     /**
-     * 📄 Return invoice PDF as a downloadable file.
+     * 🏭 Start the invoice backlog job (202); resume=true continues from the last checkpoint.
      */
-    @GetMapping("/{orderId}/download")
-    public ResponseEntity<byte[]> downloadInvoicePdf(@PathVariable Long orderId) {
-        byte[] pdfBytes = invoiceService.generateInvoicePdf(orderId);
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> startBatch(@RequestParam(defaultValue = "true") boolean resume) {
+        return ResponseEntity.accepted().body(invoiceBatchService.start(resume));
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDisposition(ContentDisposition.builder("attachment")
-            .filename("invoice_" + orderId + ".pdf").build());
+    /**
+     * 📊 Progress and throughput of the invoice backlog job.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getBatchStatus() {
+        return ResponseEntity.ok(invoiceBatchService.getStatus());
+    }
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+    /**
+     * ⏹ Stop the invoice backlog job after the chunk in flight.
+     */
+    @PostMapping("/batch/stop")
+    public ResponseEntity<Map<String, Object>> stopBatch() {
+        return ResponseEntity.ok(invoiceBatchService.stop());
+    }
+
+    /**
+     * 🗜 Stream a ZIP of invoice PDFs for a user and/or generation date range (ISO dates, inclusive).
+     */
+    @GetMapping("/export")
+    public void exportInvoices(@RequestParam(required = false) Long userId,
+                               @RequestParam(required = false) InvoiceStatus status,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               HttpServletResponse response) throws IOException {
+        InvoiceExportService.Filter filter = new InvoiceExportService.Filter(userId, status, from, to);
+        invoiceExportService.validate(filter);
+
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("invoices.zip").build().toString());
+        invoiceExportService.export(filter, response.getOutputStream());
+    }
+
+    /**
+     * 📄 Return invoice PDF as a downloadable file.
+     */
+    @GetMapping("/{orderId}/download")
+    public void downloadInvoicePdf(@PathVariable Long orderId,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        StoredInvoicePdf pdf = invoiceService.getInvoicePdf(orderId);
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename("invoice_" + orderId + ".pdf").build();
+        sendPdf(pdf, disposition, request, response);
     }
 
     /**
      * 🖥 Optional: Preview invoice PDF inline (no download).
      */
     @GetMapping("/{orderId}/preview")
-    public ResponseEntity<byte[]> previewInvoicePdf(@PathVariable Long orderId) {
-        byte[] pdfBytes = invoiceService.generateInvoicePdf(orderId);
+    public void previewInvoicePdf(@PathVariable Long orderId,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        StoredInvoicePdf pdf = invoiceService.getInvoicePdf(orderId);
+        ContentDisposition disposition = ContentDisposition.inline()
+            .filename("invoice_" + orderId + ".pdf").build();
+        sendPdf(pdf, disposition, request, response);
+    }
+
+    /**
+     * 📤 Serve a stored PDF with ETag revalidation and single-range requests.
+     * The body goes out via sendfile when the connector supports it, else FileChannel.transferTo.
+     */
+    private void sendPdf(StoredInvoicePdf pdf, ContentDisposition disposition,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + pdf.digest() + "\"";
+        long size = pdf.size();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Multi-range (multipart/byteranges) is not worth it for PDFs: answer with the full body
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    if (start >= size || start > end) {
+                        throw new IllegalArgumentException("Range not satisfiable: " + rangeHeader);
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        response.setContentLengthLong(length);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, pdf.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
 
-        return ResponseEntity.ok()
-            .contentType(MediaType.APPLICATION_PDF)
-            .body(pdfBytes);
+        try (FileChannel file = FileChannel.open(pdf.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.demo.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.demo.service.MailDispatcher;
+
+@RestController
+@RequestMapping("/api/mail")
+public class MailController {
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    // ✅ Mail queue depth, outcome counters and send latency
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(mailDispatcher.getStats());
+    }
+}
@@ -1,45 +1,155 @@
 package com.demo.controller;
 
+import com.demo.apierror.ApiError;
+import com.demo.dto.BulkStatusResult;
+import com.demo.dto.FieldSelection;
+import com.demo.dto.OrderHistoryPage;
+import com.demo.dto.OrderSummary;
+import com.demo.dto.OrderTicket;
 import com.demo.entity.Order;
+import com.demo.service.IdempotencyService;
+import com.demo.service.OrderPlacementService;
 import com.demo.service.OrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+    private static final long TICKET_SUBSCRIPTION_TIMEOUT_MS = 60_000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
 
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     /**
      * ✅ Place an order and publish OrderCreatedEvent to Kafka
      */
     @PostMapping("/place")
-    public ResponseEntity<Order> placeOrder(
+    public ResponseEntity<OrderSummary> placeOrder(
             @RequestParam Long userId,
-            @RequestParam String paymentMethod) {
+            @RequestParam String paymentMethod,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         logger.info("Placing order for user ID {} with payment method '{}'", userId, paymentMethod);
-        Order order = orderService.placeOrder(userId, paymentMethod);
-        return ResponseEntity.ok(order);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            Order order = orderService.placeOrder(userId, paymentMethod);
+            return ResponseEntity.ok(orderService.getOrderSummary(order.getId()));
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+
+        // ✅ Retries with the same key get the stored order instead of a second checkout
+        IdempotencyService.Result result = idempotencyService.placeOrder(idempotencyKey, userId, paymentMethod);
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(orderService.getOrderSummary(result.order().getId()));
+    }
+
+    /**
+     * ✅ Queue an order for asynchronous placement; returns 202 with a ticket to poll
+     */
+    @PostMapping("/place/async")
+    public ResponseEntity<?> placeOrderAsync(
+            @RequestParam Long userId,
+            @RequestParam String paymentMethod) {
+
+        logger.info("Queueing order for user ID {} with payment method '{}'", userId, paymentMethod);
+        try {
+            OrderTicket ticket = orderPlacementService.submit(userId, paymentMethod);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/tickets/" + ticket.getTicketId()))
+                    .body(ticket);
+        } catch (RejectedExecutionException e) {
+            ApiError error = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "ORDER_QUEUE_FULL",
+                "Order queue is full.",
+                "Retry the request shortly.",
+                LocalDateTime.now()
+            );
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(error);
+        }
+    }
+
+    /**
+     * ✅ Poll the outcome of an asynchronously placed order
+     */
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<OrderTicket> getTicket(@PathVariable String ticketId) {
+        return orderPlacementService.getTicket(ticketId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * ✅ Subscribe (Server-Sent Events) to a ticket; one event is sent when the order completes or fails
+     */
+    @GetMapping("/tickets/{ticketId}/events")
+    public ResponseEntity<SseEmitter> subscribeTicket(@PathVariable String ticketId) {
+        return orderPlacementService.whenDone(ticketId)
+                .map(done -> {
+                    SseEmitter emitter = new SseEmitter(TICKET_SUBSCRIPTION_TIMEOUT_MS);
+                    done.whenComplete((ticket, ex) -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("order").data(ticket));
+                            emitter.complete();
+                        } catch (IOException e) {
+                            emitter.completeWithError(e);
+                        }
+                    });
+                    return ResponseEntity.ok(emitter);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * ✅ Get all orders placed by a specific user
+     * ✅ Queue depth, wait time and rejection counters
+     */
+    @GetMapping("/queue/stats")
+    public ResponseEntity<Map<String, Object>> getQueueStats() {
+        return ResponseEntity.ok(orderPlacementService.getStats());
+    }
+
+    /**
+     * ✅ Get a user's order history one keyset page at a time, newest first
+     * (pass nextCursor back as cursor; optional status filter)
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getOrdersByUser(@PathVariable Long userId) {
-        logger.info("Fetching orders for user ID {}", userId);
-        List<Order> orders = orderService.getOrdersByUser(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<OrderHistoryPage> getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        logger.info("Fetching orders for user ID {} (status={}, size={})", userId, status, size);
+        OrderHistoryPage page = orderService.getOrdersByUser(userId, status, size, cursor, FieldSelection.parse(fields));
+        return ResponseEntity.ok(page);
     }
 
     /**
@@ -47,12 +157,25 @@ public class OrderController {
      * Triggers product unlinking if status is 'DELIVERED'
      */
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<Order> updateStatus(
+    public ResponseEntity<OrderSummary> updateStatus(
             @PathVariable Long orderId,
             @RequestParam String status) {
 
         logger.info("Updating status of order ID {} to '{}'", orderId, status);
-        Order updatedOrder = orderService.updateStatus(orderId, status);
-        return ResponseEntity.ok(updatedOrder);
+        orderService.updateStatus(orderId, status);
+        return ResponseEntity.ok(orderService.getOrderSummary(orderId));
+    }
+
+    /**
+     * ✅ Move many orders to one status at once (body: list of order IDs)
+     * Reports updated rows, unlinked items, statement count and wall time per batch
+     */
+    @PutMapping("/status/bulk")
+    public ResponseEntity<BulkStatusResult> updateStatusBulk(
+            @RequestParam String status,
+            @RequestBody List<Long> orderIds) {
+
+        logger.info("Bulk-updating {} orders to '{}'", orderIds.size(), status);
+        return ResponseEntity.ok(orderService.updateStatusBulk(orderIds, status));
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package com.demo.controller;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,10 +16,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.demo.apierror.ApiError;
+import com.demo.dto.ProductPage;
 import com.demo.entity.Product;
+import com.demo.service.ProductCache;
 import com.demo.service.ProductService;
 
 @RestController
@@ -31,6 +34,9 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductCache productCache;
+
     // ✅ Create a product
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
@@ -39,12 +45,25 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
 
-    // ✅ Get all products
+    // ✅ List products one keyset page at a time (pass nextCursor back as cursor)
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        logger.info("Fetching all products");
-        List<Product> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<ProductPage> listProducts(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String cursor) {
+        logger.info("Listing products: size={}, sort={} {}, category={}", size, sort, direction, category);
+        ProductPage page = productService.listProducts(size, sort, direction, category, minPrice, maxPrice, cursor);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    // ✅ Product cache hit/miss/eviction counters
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return new ResponseEntity<>(productCache.getStats(), HttpStatus.OK);
     }
 
     // ✅ Get product by ID
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.demo.dto.UserView;
 import com.demo.entity.User;
 import com.demo.service.UserService;
 
@@ -35,7 +36,7 @@ public class UserController {
 
     // ✅ Register user with OTP verification (no DTO)
     @PostMapping(value = "/register", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<User> registerUser(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<UserView> registerUser(@RequestBody Map<String, Object> payload) {
         // Extract user fields manually
         String name = (String) payload.get("name");
         String email = (String) payload.get("email");
@@ -52,22 +53,22 @@ public class UserController {
         user.setShippingAddress(shippingAddress);
 
         User registeredUser = userService.registerUser(user, otp);
-        return ResponseEntity.ok(registeredUser);
+        return ResponseEntity.ok(UserView.from(registeredUser));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserView> getUserById(@PathVariable Long id) {
+        return ResponseEntity.ok(userService.getUserView(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserView>> getAllUsers() {
+        return ResponseEntity.ok(userService.getAllUserViews());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
-        return ResponseEntity.ok(userService.updateUser(id, updatedUser));
+    public ResponseEntity<UserView> updateUser(@PathVariable Long id, @RequestBody User updatedUser) {
+        return ResponseEntity.ok(UserView.from(userService.updateUser(id, updatedUser)));
     }
 
     @DeleteMapping("/{id}")
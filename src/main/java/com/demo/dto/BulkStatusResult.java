@@ -0,0 +1,26 @@
+package com.demo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk order status transition, reported per batch.
+ * Each batch commits on its own; {@code statements} counts the JDBC round trips of its session.
+ */
+public record BulkStatusResult(
+        String status,
+        int requested,
+        int updated,
+        int unlinkedItems,
+        long statements,
+        long elapsedMs,
+        List<Batch> batches) {
+
+    public record Batch(
+            int index,
+            int requested,
+            int updated,
+            int unlinkedItems,
+            long statements,
+            long elapsedMs) {
+    }
+}
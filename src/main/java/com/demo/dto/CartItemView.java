@@ -0,0 +1,17 @@
+package com.demo.dto;
+
+/**
+ * One cart line with the product name joined in (no product entity loaded).
+ * {@code unitPrice} is the price snapshot taken when the item was added.
+ */
+public record CartItemView(
+        Long id,
+        Long productId,
+        String productName,
+        int quantity,
+        double unitPrice) {
+
+    public double lineTotal() {
+        return unitPrice * quantity;
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.dto;
+
+import java.util.List;
+
+/**
+ * Cart response; {@code items} is null when the caller's fields= selection leaves it out
+ * (the items query is skipped).
+ */
+public record CartView(
+        Long id,
+        Long userId,
+        List<CartItemView> items,
+        Integer itemCount,
+        Double total) {
+
+    // Header only; used by CartRepository's constructor query
+    public CartView(Long id, Long userId) {
+        this(id, userId, null, null, null);
+    }
+
+    public static CartView of(Long id, Long userId, List<CartItemView> items) {
+        if (items == null) {
+            return new CartView(id, userId, null, null, null);
+        }
+        int count = items.stream().mapToInt(CartItemView::quantity).sum();
+        double total = items.stream().mapToDouble(CartItemView::lineTotal).sum();
+        return new CartView(id, userId, items, count, total);
+    }
+}
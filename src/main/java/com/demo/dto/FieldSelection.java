@@ -0,0 +1,109 @@
+package com.demo.dto;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.demo.exception.CustomException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Parsed {@code fields=} sparse fieldset, e.g. {@code fields=id,status,items.productName}.
+ * Paths are relative to the response root and arrays are transparent, so on a page
+ * {@code orders.id,nextCursor} keeps the id of every order plus the cursor.
+ */
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    private static final int MAX_SPEC_LENGTH = 1000;
+
+    private final Map<String, FieldSelection> fields; // null = everything
+
+    private FieldSelection(Map<String, FieldSelection> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return ALL;
+        }
+        if (spec.length() > MAX_SPEC_LENGTH) {
+            throw new CustomException("fields must be at most " + MAX_SPEC_LENGTH + " characters", "fields", spec.length());
+        }
+        Map<String, FieldSelection> root = new LinkedHashMap<>();
+        for (String path : spec.split(",")) {
+            String trimmed = path.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Map<String, FieldSelection> level = root;
+            String[] segments = trimmed.split("\\.");
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i].trim();
+                if (segment.isEmpty()) {
+                    break;
+                }
+                if (i == segments.length - 1) {
+                    level.put(segment, ALL); // a whole field wins over any of its sub-paths
+                    break;
+                }
+                FieldSelection child = level.get(segment);
+                if (child == ALL) {
+                    break;
+                }
+                if (child == null) {
+                    child = new FieldSelection(new LinkedHashMap<>());
+                    level.put(segment, child);
+                }
+                level = child.fields;
+            }
+        }
+        return root.isEmpty() ? ALL : new FieldSelection(root);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.containsKey(field);
+    }
+
+    /**
+     * ✅ Selection below a field (ALL when the field is selected as a whole or nothing was restricted)
+     */
+    public FieldSelection nested(String field) {
+        if (fields == null) {
+            return ALL;
+        }
+        FieldSelection child = fields.get(field);
+        return child != null ? child : new FieldSelection(Map.of());
+    }
+
+    /**
+     * ✅ Drop unselected properties from a serialized response, in place
+     */
+    public JsonNode apply(JsonNode node) {
+        if (fields == null || node == null) {
+            return node;
+        }
+        if (node instanceof ArrayNode array) {
+            array.forEach(this::apply);
+        } else if (node instanceof ObjectNode object) {
+            Iterator<Map.Entry<String, JsonNode>> it = object.properties().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> property = it.next();
+                FieldSelection child = fields.get(property.getKey());
+                if (child == null) {
+                    it.remove();
+                } else {
+                    child.apply(property.getValue());
+                }
+            }
+        }
+        return node;
+    }
+}
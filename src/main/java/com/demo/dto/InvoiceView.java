@@ -0,0 +1,44 @@
+package com.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.demo.entity.Invoice;
+
+/**
+ * Invoice response: invoice columns, owner/order ids and the order's snapshot lines.
+ * Built from an invoice loaded with its order items (InvoiceRepository.findForRenderingByOrderId).
+ */
+public record InvoiceView(
+        Long id,
+        String invoiceNumber,
+        LocalDateTime generatedAt,
+        String status,
+        Long orderId,
+        Long userId,
+        String paymentMethod,
+        String billingAddress,
+        String shippingAddress,
+        BigDecimal totalAmount,
+        BigDecimal taxAmount,
+        BigDecimal shippingFee,
+        List<OrderSummary.Line> items) {
+
+    public static InvoiceView from(Invoice invoice) {
+        return new InvoiceView(
+                invoice.getId(),
+                invoice.getInvoiceNumber(),
+                invoice.getGeneratedAt(),
+                invoice.getStatus().name(),
+                invoice.getOrder().getId(),
+                invoice.getUser().getId(),
+                invoice.getPaymentMethod(),
+                invoice.getBillingAddress(),
+                invoice.getShippingAddress(),
+                invoice.getTotalAmount(),
+                invoice.getTaxAmount(),
+                invoice.getShippingFee(),
+                invoice.getOrder().getOrderItems().stream().map(OrderSummary.Line::from).toList());
+    }
+}
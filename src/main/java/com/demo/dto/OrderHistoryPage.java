@@ -0,0 +1,14 @@
+package com.demo.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of a user's order history, newest first.
+ * {@code nextCursor} is opaque to clients and is null on the last page.
+ */
+public record OrderHistoryPage(
+        List<OrderSummary> orders,
+        int size,
+        String nextCursor,
+        boolean hasMore) {
+}
@@ -0,0 +1,45 @@
+package com.demo.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.demo.entity.Order;
+import com.demo.entity.OrderItem;
+
+/**
+ * Order history row with its line items, built from snapshot columns only
+ * (no product or user associations are touched). {@code items} is null when not requested.
+ */
+public record OrderSummary(
+        Long id,
+        LocalDateTime createdAt,
+        String status,
+        double totalAmount,
+        String paymentMethod,
+        List<Line> items) {
+
+    public record Line(
+            Long id,
+            Long productId,
+            String productName,
+            int quantity,
+            BigDecimal price) {
+
+        public static Line from(OrderItem item) {
+            // getId() on an uninitialized proxy reads the FK without loading the product
+            Long productId = item.getProduct() != null ? item.getProduct().getId() : null;
+            return new Line(item.getId(), productId, item.getProductName(), item.getQuantity(), item.getPrice());
+        }
+    }
+
+    public static OrderSummary from(Order order, List<OrderItem> items) {
+        return new OrderSummary(
+                order.getId(),
+                order.getCreatedAt(),
+                order.getStatus(),
+                order.getTotalAmount(),
+                order.getPaymentMethod(),
+                items != null ? items.stream().map(Line::from).toList() : null);
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Handle returned for an asynchronously placed order; clients poll it until it is COMPLETED or FAILED.
+ */
+public class OrderTicket {
+
+    public enum Status { QUEUED, PROCESSING, COMPLETED, FAILED }
+
+    private final String ticketId;
+    private final Long userId;
+    private final String paymentMethod;
+    private final LocalDateTime submittedAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile Long orderId;
+    private volatile String error;
+    private volatile LocalDateTime completedAt;
+
+    public OrderTicket(String ticketId, Long userId, String paymentMethod) {
+        this.ticketId = ticketId;
+        this.userId = userId;
+        this.paymentMethod = paymentMethod;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    public void markProcessing() {
+        this.status = Status.PROCESSING;
+    }
+
+    public void markCompleted(Long orderId) {
+        this.orderId = orderId;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void markFailed(String error) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // ===== Getters =====
+    public String getTicketId() { return ticketId; }
+    public Long getUserId() { return userId; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public Status getStatus() { return status; }
+    public Long getOrderId() { return orderId; }
+    public String getError() { return error; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+}
@@ -0,0 +1,14 @@
+package com.demo.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of the product catalog.
+ * {@code nextCursor} is opaque to clients and is null on the last page.
+ */
+public record ProductPage(
+        List<ProductSummary> items,
+        int size,
+        String nextCursor,
+        boolean hasMore) {
+}
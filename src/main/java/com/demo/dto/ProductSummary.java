@@ -0,0 +1,25 @@
+package com.demo.dto;
+
+import com.demo.entity.Product;
+
+/**
+ * Lightweight product view used by catalog listings (no description payload).
+ */
+public record ProductSummary(
+        Long id,
+        String name,
+        Double price,
+        int stock,
+        String category,
+        String imageUrl) {
+
+    public static ProductSummary from(Product product) {
+        return new ProductSummary(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getStock(),
+                product.getCategory(),
+                product.getImageUrl());
+    }
+}
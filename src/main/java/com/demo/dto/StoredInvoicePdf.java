@@ -0,0 +1,13 @@
+package com.demo.dto;
+
+import java.nio.file.Path;
+
+/**
+ * A rendered invoice PDF on disk; {@code digest} doubles as its strong ETag.
+ */
+public record StoredInvoicePdf(
+        Long orderId,
+        Path path,
+        String digest,
+        long size) {
+}
@@ -0,0 +1,28 @@
+package com.demo.dto;
+
+import com.demo.entity.User;
+
+/**
+ * Public user profile: no password, no order or cart graph (cartId only).
+ * Read with a constructor query by UserRepository.
+ */
+public record UserView(
+        Long id,
+        String name,
+        String email,
+        String billingAddress,
+        String shippingAddress,
+        boolean emailVerified,
+        Long cartId) {
+
+    public static UserView from(User user) {
+        return new UserView(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getBillingAddress(),
+                user.getShippingAddress(),
+                user.isEmailVerified(),
+                user.getCart() != null ? user.getCart().getId() : null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Resume point of a long-running batch job: every id up to lastId has been handled.
+ */
+@Entity
+@Table(name = "batch_checkpoints")
+public class BatchCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // ===== Constructors =====
+    public BatchCheckpoint() {}
+
+    public BatchCheckpoint(String jobName, Long lastId, long processed) {
+        this.jobName = jobName;
+        this.lastId = lastId;
+        this.processed = processed;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // ===== Getters & Setters =====
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public Long getLastId() { return lastId; }
+    public void setLastId(Long lastId) { this.lastId = lastId; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    // ===== Debugging =====
+    @Override
+    public String toString() {
+        return "BatchCheckpoint{" +
+               "jobName='" + jobName + '\'' +
+               ", lastId=" + lastId +
+               ", processed=" + processed +
+               ", updatedAt=" + updatedAt +
+               '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.demo.entity;
 
+import com.demo.config.PooledId;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 
@@ -8,7 +9,7 @@ import jakarta.persistence.*;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("cart_items")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
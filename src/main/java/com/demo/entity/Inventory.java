@@ -1,5 +1,6 @@
 package com.demo.entity;
 
+import com.demo.config.PooledId;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("inventory")
     private Long id;
 
     // ✅ Link to Product (nullable for safe unlinking)
@@ -23,6 +24,10 @@ public class Inventory {
     @Column(nullable = false)
     private int quantity;
 
+    // ✅ Number of stock counter slots (0 = single-row mode); see InventorySlot
+    @Column(name = "slot_count", nullable = false, columnDefinition = "int default 0")
+    private int slotCount;
+
     // ✅ Optional: Track last updated timestamp
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
@@ -53,6 +58,12 @@ public class Inventory {
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
 
+    public int getSlotCount() { return slotCount; }
+    public void setSlotCount(int slotCount) { this.slotCount = slotCount; }
+
+    @Transient
+    public boolean isSharded() { return slotCount > 0; }
+
     public LocalDateTime getLastUpdated() { return lastUpdated; }
     public void setLastUpdated(LocalDateTime lastUpdated) { this.lastUpdated = lastUpdated; }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.demo.entity;
+
+import com.demo.config.PooledId;
+import jakarta.persistence.*;
+
+/**
+ * One counter slot of a product's sharded stock.
+ * When sharding is enabled the product's availability is the sum of its slots,
+ * and checkouts decrement a single slot instead of the shared Inventory row.
+ */
+@Entity
+@Table(name = "inventory_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inventory_slot_product_slot", columnNames = {"product_id", "slot_no"})
+})
+public class InventorySlot {
+
+    @Id
+    @PooledId("inventory_slots")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "slot_no", nullable = false)
+    private int slotNo;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    // ===== Constructors =====
+    public InventorySlot() {}
+
+    public InventorySlot(Product product, int slotNo, int quantity) {
+        this.product = product;
+        this.slotNo = slotNo;
+        this.quantity = quantity;
+    }
+
+    // ===== Getters & Setters =====
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+
+    public int getSlotNo() { return slotNo; }
+    public void setSlotNo(int slotNo) { this.slotNo = slotNo; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
@@ -1,5 +1,6 @@
 package com.demo.entity;
 
+import com.demo.config.PooledId;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.*;
@@ -7,17 +8,21 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_invoices_generated_id", columnList = "generated_at, id"),
+        @Index(name = "idx_invoices_file_path", columnList = "file_path")
+})
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("invoices")
     private Long id;
 
     @Column(unique = true, nullable = false)
     private String invoiceNumber; // e.g. INV-20250826-0001
 
-    @Column(nullable = false)
+    @Column(name = "generated_at", nullable = false)
     private LocalDateTime generatedAt;
 
     @Column(nullable = false, precision = 12, scale = 2)
@@ -43,7 +48,7 @@ public class Invoice {
     private InvoiceStatus status; // e.g. GENERATED, SENT, CANCELLED
 
     @OneToOne(fetch = FetchType.LAZY, optional = false)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, unique = true) // ✅ one invoice per order
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Order order;
 
@@ -0,0 +1,56 @@
+package com.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * High-water mark of invoice numbers handed out for one day.
+ * Nodes reserve whole blocks by bumping nextValue, then number invoices from memory.
+ * Always inserted (never merged), so two nodes opening the same day collide on the primary key.
+ */
+@Entity
+@Table(name = "invoice_number_blocks")
+public class InvoiceNumberBlock implements Persistable<LocalDate> {
+
+    @Id
+    @Column(name = "invoice_day")
+    private LocalDate day;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue; // first number not yet reserved by any node
+
+    @Transient
+    private boolean isNew = true;
+
+    // ===== Constructors =====
+    public InvoiceNumberBlock() {}
+
+    public InvoiceNumberBlock(LocalDate day, long nextValue) {
+        this.day = day;
+        this.nextValue = nextValue;
+    }
+
+    // ===== Lifecycle Hook =====
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // ===== Getters & Setters =====
+    @Override
+    public LocalDate getId() { return day; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+}
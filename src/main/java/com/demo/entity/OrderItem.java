@@ -1,5 +1,6 @@
 package com.demo.entity;
 
+import com.demo.config.PooledId;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
@@ -16,7 +17,7 @@ import java.util.Objects;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("order_items")
     private Long id;
 
     // ===== Product relation =====
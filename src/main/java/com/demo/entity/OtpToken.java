@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "otp_tokens")
+@Table(name = "otp_tokens", indexes = {
+        @Index(name = "uk_otp_email", columnList = "email", unique = true),
+        @Index(name = "idx_otp_expires_at", columnList = "expires_at")
+})
 public class OtpToken {
 
     @Id
@@ -17,9 +20,12 @@ public class OtpToken {
     @Column(nullable = false)
     private String otp;
 
-    @Column(nullable = false)
+    @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
 
+    @Column(nullable = false)
+    private int attempts;
+
     // Constructors
     public OtpToken() {}
 
@@ -34,9 +40,11 @@ public class OtpToken {
     public String getEmail() { return email; }
     public String getOtp() { return otp; }
     public LocalDateTime getExpiresAt() { return expiresAt; }
+    public int getAttempts() { return attempts; }
 
     public void setId(Long id) { this.id = id; }
     public void setEmail(String email) { this.email = email; }
     public void setOtp(String otp) { this.otp = otp; }
     public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
 }
\ No newline at end of file
@@ -1,15 +1,23 @@
 package com.demo.entity;
 
+import com.demo.config.PooledId;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        // ✅ Backing indexes for keyset listing (sort column + id tiebreaker)
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_category_id", columnList = "category, id"),
+        @Index(name = "idx_product_category_price_id", columnList = "category, price, id"),
+        @Index(name = "idx_product_category_name_id", columnList = "category, name, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId("product")
     private Long id;
 
     @Column(nullable = false)
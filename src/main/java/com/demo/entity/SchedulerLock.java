@@ -0,0 +1,55 @@
+package com.demo.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Named row a scheduled job locks for the length of its transaction, so only one node runs it at a time.
+ * Always inserted (never merged), so two nodes creating the same lock collide on the primary key.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock implements Persistable<String> {
+
+    @Id
+    @Column(name = "lock_name", length = 100)
+    private String name;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // ===== Constructors =====
+    public SchedulerLock() {}
+
+    public SchedulerLock(String name) {
+        this.name = name;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // ===== Lifecycle Hook =====
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // ===== Getters & Setters =====
+    @Override
+    public String getId() { return name; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
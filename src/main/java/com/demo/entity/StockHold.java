@@ -0,0 +1,59 @@
+package com.demo.entity;
+
+import com.demo.config.PooledId;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted snapshot of a time-boxed stock hold placed when a product is added to a cart.
+ * The live holds are kept in memory by StockReservationService; this table lets them survive restarts.
+ */
+@Entity
+@Table(name = "stock_holds", indexes = {
+        @Index(name = "idx_stock_hold_cart", columnList = "cart_id"),
+        @Index(name = "idx_stock_hold_expires", columnList = "expires_at")
+})
+public class StockHold {
+
+    @Id
+    @PooledId("stock_holds")
+    private Long id;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // ===== Constructors =====
+    public StockHold() {}
+
+    public StockHold(Long cartId, Long productId, int quantity, LocalDateTime expiresAt) {
+        this.cartId = cartId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+    }
+
+    // ===== Getters & Setters =====
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCartId() { return cartId; }
+    public void setCartId(Long cartId) { this.cartId = cartId; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -3,6 +3,7 @@ package com.demo.exception;
 import java.time.LocalDateTime;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -29,6 +30,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiError> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        ApiError error = new ApiError(
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            ex.getCode(),
+            ex.getMessage(),
+            "Retry later with the same Idempotency-Key, or use a new key for a different request.",
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(MailQueueFullException.class)
+    public ResponseEntity<ApiError> handleMailQueueFull(MailQueueFullException ex) {
+        ApiError error = new ApiError(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "MAIL_QUEUE_FULL",
+            ex.getMessage(),
+            "Retry the request shortly.",
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
+    @ExceptionHandler(OtpBacklogFullException.class)
+    public ResponseEntity<ApiError> handleOtpBacklogFull(OtpBacklogFullException ex) {
+        ApiError error = new ApiError(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "OTP_BACKLOG_FULL",
+            ex.getMessage(),
+            "Retry the request shortly.",
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiError> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
         ApiError error = new ApiError(
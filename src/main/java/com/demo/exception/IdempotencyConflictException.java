@@ -0,0 +1,18 @@
+package com.demo.exception;
+
+/**
+ * An Idempotency-Key is being processed by another request, or was used for a different request.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+	private final String code;
+
+	public IdempotencyConflictException(String code, String message) {
+		super(message);
+		this.code = code;
+	}
+
+	public String getCode() {
+		return code;
+	}
+}
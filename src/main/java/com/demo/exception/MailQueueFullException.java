@@ -0,0 +1,11 @@
+package com.demo.exception;
+
+/**
+ * The outbound mail queue is at capacity; the caller should retry shortly (503).
+ */
+public class MailQueueFullException extends RuntimeException {
+
+	public MailQueueFullException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,11 @@
+package com.demo.exception;
+
+/**
+ * Too many OTPs are pending in the in-memory store; the caller should retry shortly (503).
+ */
+public class OtpBacklogFullException extends RuntimeException {
+
+	public OtpBacklogFullException(String message) {
+		super(message);
+	}
+}
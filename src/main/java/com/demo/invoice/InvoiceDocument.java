@@ -0,0 +1,72 @@
+package com.demo.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.demo.entity.Invoice;
+import com.demo.entity.Order;
+import com.demo.entity.OrderItem;
+
+/**
+ * Everything an invoice PDF shows, detached from JPA so renderers never touch lazy associations.
+ */
+public record InvoiceDocument(
+        String invoiceNumber,
+        LocalDate date,
+        String customerName,
+        String billingAddress,
+        String shippingAddress,
+        String paymentMethod,
+        List<Line> lines,
+        BigDecimal taxAmount,
+        BigDecimal shippingFee,
+        BigDecimal totalAmount) {
+
+    public record Line(String name, int quantity, BigDecimal price) {}
+
+    public static InvoiceDocument of(Invoice invoice, Order order) {
+        return new InvoiceDocument(
+                invoice.getInvoiceNumber(),
+                invoice.getGeneratedAt().toLocalDate(),
+                invoice.getUser().getName(),
+                invoice.getBillingAddress(),
+                invoice.getShippingAddress(),
+                invoice.getPaymentMethod(),
+                order.getOrderItems().stream()
+                        .map(item -> new Line(itemName(item), item.getQuantity(), item.getPrice()))
+                        .toList(),
+                invoice.getTaxAmount(),
+                invoice.getShippingFee(),
+                invoice.getTotalAmount());
+    }
+
+    // Snapshot name survives product unlinking on delivery
+    private static String itemName(OrderItem item) {
+        if (item.getProductName() != null) {
+            return item.getProductName();
+        }
+        return item.getProduct() != null ? item.getProduct().getName() : "Item";
+    }
+
+    /**
+     * ✅ Stable text form of the content, in a fixed order (input to the PDF store digest).
+     */
+    public String canonicalForm() {
+        StringBuilder sb = new StringBuilder()
+                .append(invoiceNumber).append('|').append(date)
+                .append('|').append(customerName)
+                .append('|').append(billingAddress)
+                .append('|').append(shippingAddress)
+                .append('|').append(paymentMethod);
+        for (Line line : lines) {
+            sb.append('|').append(line.name())
+              .append('|').append(line.quantity())
+              .append('|').append(line.price());
+        }
+        return sb.append('|').append(taxAmount)
+                .append('|').append(shippingFee)
+                .append('|').append(totalAmount)
+                .toString();
+    }
+}
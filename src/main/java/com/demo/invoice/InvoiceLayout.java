@@ -0,0 +1,74 @@
+package com.demo.invoice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout template shared by both renderers: A4 geometry, column positions, labels and
+ * pagination are computed once here instead of on every render.
+ */
+public final class InvoiceLayout {
+
+    public static final String TITLE = "TAX INVOICE";
+    public static final String TITLE_CONTINUED = "TAX INVOICE (continued)";
+    public static final String[] COLUMNS = {"Item", "Qty", "Unit Price", "Amount"};
+
+    // A4 in points
+    public static final float PAGE_WIDTH = 595.28f;
+    public static final float PAGE_HEIGHT = 841.89f;
+    public static final float MARGIN = 50f;
+
+    public static final float TOP = PAGE_HEIGHT - MARGIN;
+    public static final float FIRST_HEADER_Y = TOP - 150f; // column headings, first page
+    public static final float NEXT_HEADER_Y = TOP - 40f;   // column headings, continuation pages
+    public static final float FOOTER_Y = 30f;
+
+    public static final float TITLE_SIZE = 16f;
+    public static final float TEXT_SIZE = 10f;
+    public static final float ROW_HEIGHT = 16f;
+
+    // Column x-offsets (left edge) and widths, relative to the left margin
+    public static final float[] COLUMN_X = {0f, 300f, 350f, 425f};
+    public static final float[] COLUMN_WIDTHS = {300f, 50f, 75f, 70f};
+
+    // Rows that fit below the header block on the first page and on continuation pages
+    public static final int FIRST_PAGE_ROWS = 30;
+    public static final int NEXT_PAGE_ROWS = 42;
+    // Summary block (tax, shipping, total) needs this many rows on the last page
+    public static final int SUMMARY_ROWS = 4;
+
+    private InvoiceLayout() {}
+
+    /**
+     * ✅ Split lines into pages; the last page always keeps room for the summary.
+     */
+    public static List<List<InvoiceDocument.Line>> paginate(List<InvoiceDocument.Line> lines) {
+        List<List<InvoiceDocument.Line>> pages = new ArrayList<>();
+        int index = 0;
+        int capacity = FIRST_PAGE_ROWS;
+        while (true) {
+            int remaining = lines.size() - index;
+            if (remaining + SUMMARY_ROWS <= capacity) {
+                pages.add(lines.subList(index, lines.size()));
+                return pages;
+            }
+            int take = Math.min(remaining, capacity);
+            pages.add(lines.subList(index, index + take));
+            index += take;
+            capacity = NEXT_PAGE_ROWS;
+        }
+    }
+
+    public static BigDecimal lineAmount(InvoiceDocument.Line line) {
+        return line.price().multiply(BigDecimal.valueOf(line.quantity()));
+    }
+
+    public static String money(BigDecimal amount) {
+        return "Rs." + amount;
+    }
+
+    public static String pageLabel(int page, int pages) {
+        return "Page " + page + " of " + pages;
+    }
+}
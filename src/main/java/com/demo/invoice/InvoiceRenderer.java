@@ -0,0 +1,16 @@
+package com.demo.invoice;
+
+/**
+ * Turns an invoice into PDF bytes. Implementations must be thread-safe: one instance
+ * serves every request and batch worker, sharing its cached fonts and layout.
+ */
+public interface InvoiceRenderer {
+
+    /**
+     * Engine and layout version (e.g. "pdfbox-v2"); part of the stored PDF's digest,
+     * so switching engines or changing a layout re-renders cached files.
+     */
+    String id();
+
+    byte[] render(InvoiceDocument document);
+}
@@ -0,0 +1,143 @@
+package com.demo.invoice;
+
+import static com.demo.invoice.InvoiceLayout.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfPageEventHelper;
+import com.lowagie.text.pdf.PdfWriter;
+
+/**
+ * OpenPDF renderer. Base fonts and font styles are created once; the item table with its
+ * column widths and heading row is built once as a template and copied per page.
+ * Pagination follows {@link InvoiceLayout#paginate} so both engines break pages identically.
+ */
+@Component
+@ConditionalOnProperty(name = "invoice.renderer", havingValue = "openpdf")
+public class OpenPdfInvoiceRenderer implements InvoiceRenderer {
+
+    private final Font titleFont;
+    private final Font boldFont;
+    private final Font textFont;
+    private final PdfPTable tableTemplate;
+
+    public OpenPdfInvoiceRenderer() {
+        try {
+            BaseFont regular = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+            BaseFont bold = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+            titleFont = new Font(bold, TITLE_SIZE);
+            boldFont = new Font(bold, TEXT_SIZE);
+            textFont = new Font(regular, TEXT_SIZE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load invoice fonts", e);
+        }
+
+        tableTemplate = new PdfPTable(COLUMN_WIDTHS.length);
+        tableTemplate.setTotalWidth(COLUMN_WIDTHS);
+        tableTemplate.setLockedWidth(true);
+        tableTemplate.setHorizontalAlignment(Element.ALIGN_LEFT);
+        tableTemplate.setHeaderRows(1);
+        for (int c = 0; c < COLUMNS.length; c++) {
+            PdfPCell heading = cell(COLUMNS[c], boldFont, c == 0 ? Element.ALIGN_LEFT : Element.ALIGN_RIGHT);
+            heading.setBorder(Rectangle.BOTTOM);
+            heading.setBorderWidth(0.5f);
+            tableTemplate.addCell(heading);
+        }
+    }
+
+    @Override
+    public String id() {
+        return "openpdf-v1";
+    }
+
+    @Override
+    public byte[] render(InvoiceDocument invoice) {
+        List<List<InvoiceDocument.Line>> pages = paginate(invoice.lines());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        Document document = new Document(PageSize.A4, MARGIN, MARGIN, MARGIN, MARGIN);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setPageEvent(new PdfPageEventHelper() {
+                @Override
+                public void onEndPage(PdfWriter w, Document d) {
+                    ColumnText.showTextAligned(w.getDirectContent(), Element.ALIGN_LEFT,
+                            new Phrase(pageLabel(w.getPageNumber(), pages.size()), textFont), MARGIN, FOOTER_Y, 0);
+                }
+            });
+            document.open();
+
+            for (int i = 0; i < pages.size(); i++) {
+                if (i > 0) {
+                    document.newPage();
+                }
+                document.add(new Paragraph(i == 0 ? TITLE : TITLE_CONTINUED, titleFont));
+                if (i == 0) {
+                    writeMeta(document, invoice);
+                }
+
+                PdfPTable table = new PdfPTable(tableTemplate);
+                table.setSpacingBefore(ROW_HEIGHT);
+                for (InvoiceDocument.Line line : pages.get(i)) {
+                    table.addCell(cell(line.name(), textFont, Element.ALIGN_LEFT));
+                    table.addCell(cell(String.valueOf(line.quantity()), textFont, Element.ALIGN_RIGHT));
+                    table.addCell(cell(money(line.price()), textFont, Element.ALIGN_RIGHT));
+                    table.addCell(cell(money(lineAmount(line)), textFont, Element.ALIGN_RIGHT));
+                }
+                if (i == pages.size() - 1) {
+                    summaryRow(table, "Tax", money(invoice.taxAmount()), textFont);
+                    summaryRow(table, "Shipping", money(invoice.shippingFee()), textFont);
+                    summaryRow(table, "Total", money(invoice.totalAmount()), boldFont);
+                }
+                document.add(table);
+            }
+            document.close();
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Failed to render invoice " + invoice.invoiceNumber(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private void writeMeta(Document document, InvoiceDocument invoice) throws DocumentException {
+        Paragraph meta = new Paragraph(ROW_HEIGHT);
+        meta.setSpacingBefore(ROW_HEIGHT / 2);
+        meta.add(new Phrase("Invoice #: " + invoice.invoiceNumber() + "\n", textFont));
+        meta.add(new Phrase("Date: " + invoice.date() + "\n", textFont));
+        meta.add(new Phrase("Customer: " + invoice.customerName() + "\n", textFont));
+        meta.add(new Phrase("Billing Address: " + invoice.billingAddress() + "\n", textFont));
+        meta.add(new Phrase("Shipping Address: " + invoice.shippingAddress() + "\n", textFont));
+        meta.add(new Phrase("Payment Method: " + invoice.paymentMethod(), textFont));
+        document.add(meta);
+    }
+
+    private void summaryRow(PdfPTable table, String label, String amount, Font font) {
+        PdfPCell labelCell = cell(label, font, Element.ALIGN_RIGHT);
+        labelCell.setColspan(3);
+        table.addCell(labelCell);
+        table.addCell(cell(amount, font, Element.ALIGN_RIGHT));
+    }
+
+    private static PdfPCell cell(String text, Font font, int alignment) {
+        PdfPCell cell = new PdfPCell(new Phrase(text == null ? "" : text, font));
+        cell.setBorder(Rectangle.NO_BORDER);
+        cell.setHorizontalAlignment(alignment);
+        cell.setFixedHeight(ROW_HEIGHT);
+        cell.setPaddingTop(2f);
+        return cell;
+    }
+}
@@ -0,0 +1,206 @@
+package com.demo.invoice;
+
+import static com.demo.invoice.InvoiceLayout.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * PDFBox renderer. The static page furniture (title, column headings, rules) is compiled
+ * once into form XObject content streams; each render only wraps those bytes in a form
+ * and draws the variable text. Fonts are the non-embedded standard 14 (no font loading).
+ */
+@Component
+@ConditionalOnProperty(name = "invoice.renderer", havingValue = "pdfbox", matchIfMissing = true)
+public class PdfBoxInvoiceRenderer implements InvoiceRenderer {
+
+    private static final PDFont BOLD = PDType1Font.HELVETICA_BOLD;
+    private static final PDFont REGULAR = PDType1Font.HELVETICA;
+
+    private final COSName boldName;
+    private final COSName regularName;
+    private final byte[] firstPageTemplate;
+    private final byte[] nextPageTemplate;
+
+    public PdfBoxInvoiceRenderer() {
+        PDResources names = new PDResources();
+        boldName = names.add(BOLD);
+        regularName = names.add(REGULAR);
+        firstPageTemplate = compileTemplate(TITLE, FIRST_HEADER_Y);
+        nextPageTemplate = compileTemplate(TITLE_CONTINUED, NEXT_HEADER_Y);
+    }
+
+    @Override
+    public String id() {
+        return "pdfbox-v2";
+    }
+
+    @Override
+    public byte[] render(InvoiceDocument invoice) {
+        List<List<InvoiceDocument.Line>> pages = paginate(invoice.lines());
+        try (PDDocument document = new PDDocument()) {
+            PDFormXObject firstPage = templateForm(document, firstPageTemplate);
+            PDFormXObject nextPage = pages.size() > 1 ? templateForm(document, nextPageTemplate) : null;
+
+            for (int i = 0; i < pages.size(); i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                boolean first = i == 0;
+                boolean last = i == pages.size() - 1;
+
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.drawForm(first ? firstPage : nextPage);
+                    if (first) {
+                        writeMeta(content, invoice);
+                    }
+                    float y = (first ? FIRST_HEADER_Y : NEXT_HEADER_Y) - 18f;
+                    for (InvoiceDocument.Line line : pages.get(i)) {
+                        writeRow(content, y, line.name(), String.valueOf(line.quantity()),
+                                money(line.price()), money(lineAmount(line)));
+                        y -= ROW_HEIGHT;
+                    }
+                    if (last) {
+                        writeSummary(content, y - 6f, invoice);
+                    }
+                    text(content, REGULAR, TEXT_SIZE, MARGIN, FOOTER_Y, pageLabel(i + 1, pages.size()));
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+            document.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render invoice " + invoice.invoiceNumber(), e);
+        }
+    }
+
+    private void writeMeta(PDPageContentStream content, InvoiceDocument invoice) throws IOException {
+        float y = TOP - 40f;
+        String[] meta = {
+                "Invoice #: " + invoice.invoiceNumber(),
+                "Date: " + invoice.date(),
+                "Customer: " + invoice.customerName(),
+                "Billing Address: " + invoice.billingAddress(),
+                "Shipping Address: " + invoice.shippingAddress(),
+                "Payment Method: " + invoice.paymentMethod()
+        };
+        for (String line : meta) {
+            text(content, REGULAR, TEXT_SIZE, MARGIN, y, line);
+            y -= ROW_HEIGHT;
+        }
+    }
+
+    private void writeRow(PDPageContentStream content, float y, String... cells) throws IOException {
+        text(content, REGULAR, TEXT_SIZE, MARGIN + COLUMN_X[0], y, cells[0]);
+        for (int c = 1; c < cells.length; c++) {
+            rightAligned(content, REGULAR, MARGIN + COLUMN_X[c] + COLUMN_WIDTHS[c], y, cells[c]);
+        }
+    }
+
+    private void writeSummary(PDPageContentStream content, float y, InvoiceDocument invoice) throws IOException {
+        float labelX = MARGIN + COLUMN_X[2];
+        float right = MARGIN + COLUMN_X[3] + COLUMN_WIDTHS[3];
+        text(content, REGULAR, TEXT_SIZE, labelX, y, "Tax");
+        rightAligned(content, REGULAR, right, y, money(invoice.taxAmount()));
+        text(content, REGULAR, TEXT_SIZE, labelX, y - ROW_HEIGHT, "Shipping");
+        rightAligned(content, REGULAR, right, y - ROW_HEIGHT, money(invoice.shippingFee()));
+        text(content, BOLD, TEXT_SIZE, labelX, y - 2 * ROW_HEIGHT, "Total");
+        rightAligned(content, BOLD, right, y - 2 * ROW_HEIGHT, money(invoice.totalAmount()));
+    }
+
+    private void rightAligned(PDPageContentStream content, PDFont font, float right, float y, String value)
+            throws IOException {
+        String safe = sanitize(value);
+        float width = font.getStringWidth(safe) / 1000f * TEXT_SIZE;
+        text(content, font, TEXT_SIZE, right - width, y, safe);
+    }
+
+    private static void text(PDPageContentStream content, PDFont font, float size, float x, float y, String value)
+            throws IOException {
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y);
+        content.showText(sanitize(value));
+        content.endText();
+    }
+
+    // Standard 14 fonts only encode WinAnsi; anything else would throw at showText
+    private static String sanitize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char replacement = c < 0x20 ? ' ' : c > 0xFF ? '?' : c;
+            if (replacement != c && sb == null) {
+                sb = new StringBuilder(value);
+            }
+            if (sb != null) {
+                sb.setCharAt(i, replacement);
+            }
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    /**
+     * Wrap the precompiled template bytes in a form XObject owned by this document.
+     */
+    private PDFormXObject templateForm(PDDocument document, byte[] template) throws IOException {
+        PDFormXObject form = new PDFormXObject(new PDStream(document, new ByteArrayInputStream(template)));
+        PDResources resources = new PDResources();
+        resources.put(boldName, BOLD);
+        resources.put(regularName, REGULAR);
+        form.setResources(resources);
+        form.setBBox(new PDRectangle(PAGE_WIDTH, PAGE_HEIGHT));
+        return form;
+    }
+
+    /**
+     * Draw the static furniture once into a scratch form and keep its raw content stream.
+     */
+    private byte[] compileTemplate(String title, float headerY) {
+        try (PDDocument scratch = new PDDocument()) {
+            // An appearance stream is a form XObject that PDFBox 2 can open a content stream on
+            PDAppearanceStream form = new PDAppearanceStream(scratch);
+            PDResources resources = new PDResources();
+            resources.put(boldName, BOLD);
+            resources.put(regularName, REGULAR);
+            form.setResources(resources);
+            form.setBBox(new PDRectangle(PAGE_WIDTH, PAGE_HEIGHT));
+
+            try (PDPageContentStream content = new PDPageContentStream(scratch, form)) {
+                text(content, BOLD, TITLE_SIZE, MARGIN, TOP - 16f, title);
+                text(content, BOLD, TEXT_SIZE, MARGIN + COLUMN_X[0], headerY, COLUMNS[0]);
+                for (int c = 1; c < COLUMNS.length; c++) {
+                    float width = BOLD.getStringWidth(COLUMNS[c]) / 1000f * TEXT_SIZE;
+                    text(content, BOLD, TEXT_SIZE, MARGIN + COLUMN_X[c] + COLUMN_WIDTHS[c] - width, headerY, COLUMNS[c]);
+                }
+                content.setLineWidth(0.5f);
+                content.moveTo(MARGIN, headerY - 5f);
+                content.lineTo(PAGE_WIDTH - MARGIN, headerY - 5f);
+                content.stroke();
+            }
+            return form.getContentStream().toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compile invoice template", e);
+        }
+    }
+}
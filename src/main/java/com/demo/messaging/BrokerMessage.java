@@ -0,0 +1,27 @@
+package com.demo.messaging;
+
+import java.time.LocalDateTime;
+
+import com.demo.entity.OutboxEvent;
+
+/**
+ * Event as seen by publishers and downstream consumers.
+ */
+public record BrokerMessage(
+        Long eventId,
+        String topic,
+        String key,
+        String eventType,
+        String payload,
+        LocalDateTime createdAt) {
+
+    public static BrokerMessage from(OutboxEvent event) {
+        return new BrokerMessage(
+                event.getId(),
+                event.getTopic(),
+                String.valueOf(event.getAggregateId()),
+                event.getEventType(),
+                event.getPayload(),
+                event.getCreatedAt());
+    }
+}
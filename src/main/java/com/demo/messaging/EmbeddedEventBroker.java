@@ -0,0 +1,157 @@
+package com.demo.messaging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Local stand-in for a message broker: per-topic in-memory logs with offsets,
+ * in-process subscribers, and an optional append-only JSON-lines file per topic.
+ */
+public class EmbeddedEventBroker implements EventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedEventBroker.class);
+
+    private static class TopicLog {
+        private final Deque<BrokerMessage> messages = new ArrayDeque<>();
+        private long nextOffset;
+        private BufferedWriter writer;
+    }
+
+    private final Map<String, TopicLog> topics = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<BrokerMessage>>> subscribers = new ConcurrentHashMap<>();
+    private final int retainedPerTopic;
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param retainedPerTopic messages kept in memory per topic
+     * @param directory        where topic files are appended, or null for memory only
+     */
+    public EmbeddedEventBroker(int retainedPerTopic, Path directory, ObjectMapper objectMapper) {
+        this.retainedPerTopic = retainedPerTopic;
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(BrokerMessage message) throws IOException {
+        TopicLog topic = topics.computeIfAbsent(message.topic(), t -> new TopicLog());
+        synchronized (topic) {
+            if (directory != null) {
+                writerFor(message.topic(), topic).write(objectMapper.writeValueAsString(message));
+                topic.writer.newLine();
+            }
+            topic.messages.addLast(message);
+            topic.nextOffset++;
+            if (topic.messages.size() > retainedPerTopic) {
+                topic.messages.removeFirst();
+            }
+        }
+        for (Consumer<BrokerMessage> subscriber : subscribers.getOrDefault(message.topic(), List.of())) {
+            try {
+                subscriber.accept(message);
+            } catch (RuntimeException e) {
+                log.warn("Subscriber on topic {} failed for event {}: {}", message.topic(), message.eventId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        for (TopicLog topic : topics.values()) {
+            synchronized (topic) {
+                if (topic.writer != null) {
+                    topic.writer.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * ✅ Register an in-process consumer for a topic
+     */
+    public void subscribe(String topic, Consumer<BrokerMessage> subscriber) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    /**
+     * ✅ Read retained messages of a topic starting at an offset
+     */
+    public List<BrokerMessage> read(String topic, long fromOffset, int max) {
+        TopicLog topicLog = topics.get(topic);
+        if (topicLog == null) {
+            return List.of();
+        }
+        synchronized (topicLog) {
+            long firstRetained = topicLog.nextOffset - topicLog.messages.size();
+            long skip = Math.max(0, fromOffset - firstRetained);
+            List<BrokerMessage> result = new ArrayList<>(Math.min(max, topicLog.messages.size()));
+            for (BrokerMessage message : topicLog.messages) {
+                if (skip-- > 0) {
+                    continue;
+                }
+                if (result.size() == max) {
+                    break;
+                }
+                result.add(message);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * ✅ Offset the next message on a topic will get
+     */
+    public long endOffset(String topic) {
+        TopicLog topicLog = topics.get(topic);
+        if (topicLog == null) {
+            return 0;
+        }
+        synchronized (topicLog) {
+            return topicLog.nextOffset;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (TopicLog topic : topics.values()) {
+            synchronized (topic) {
+                if (topic.writer != null) {
+                    try {
+                        topic.writer.close();
+                    } catch (IOException e) {
+                        log.warn("Failed to close topic file: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private BufferedWriter writerFor(String topicName, TopicLog topic) throws IOException {
+        if (topic.writer == null) {
+            Files.createDirectories(directory);
+            topic.writer = Files.newBufferedWriter(directory.resolve(topicName + ".log"), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return topic.writer;
+    }
+}
@@ -0,0 +1,17 @@
+package com.demo.messaging;
+
+/**
+ * Destination for relayed outbox events (Kafka, RabbitMQ, ...).
+ * Implementations must be safe to call again with the same message: the relay
+ * delivers at least once and consumers deduplicate on {@link BrokerMessage#eventId()}.
+ */
+public interface EventPublisher {
+
+    void publish(BrokerMessage message) throws Exception;
+
+    /**
+     * Called once after each relayed batch (e.g. to flush buffered output).
+     */
+    default void flush() throws Exception {
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Business timers, counters and gauges, exported with the rest of the registry
+ * (Prometheus names: shop_order_place_seconds, shop_stock_reservation_failures_total, ...).
+ * Timers carry outcome=success|failure and the exception's simple name, like http.server.requests.
+ */
+@Component
+public class ShopMetrics {
+
+    // 📊 Meter names
+    public static final String ORDER_PLACE = "shop.order.place";
+    public static final String ORDER_LINES = "shop.order.lines";
+    public static final String CART_ADD = "shop.cart.add";
+    public static final String INVOICE_PDF = "shop.invoice.pdf";
+    public static final String INVOICE_RENDER = "shop.invoice.render";
+    public static final String OTP_SEND = "shop.otp.send";
+    public static final String STOCK_RESERVATION_FAILURES = "shop.stock.reservation.failures";
+    public static final String STOCK_LOW_ALERTS = "shop.stock.low.alerts";
+    public static final String STOCK_LOW_PRODUCTS = "shop.stock.low.products";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+
+    public ShopMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * ⏱ Time a unit of work; exceptions are recorded as outcome=failure and rethrown.
+     */
+    public <T> T time(String name, Supplier<T> work, String... tags) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            T result = work.get();
+            sample.stop(timer(name, "success", NO_EXCEPTION, tags));
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(timer(name, "failure", e.getClass().getSimpleName(), tags));
+            throw e;
+        }
+    }
+
+    /**
+     * ⏱ Time from now until the surrounding transaction completes, so flush and commit are
+     * included; a rollback is recorded as outcome=failure. Outside a transaction nothing is recorded.
+     */
+    public void timeTransaction(String name, String... tags) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(registry);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                sample.stop(timer(name, committed ? "success" : "failure",
+                        committed ? NO_EXCEPTION : "RolledBack", tags));
+            }
+        });
+    }
+
+    public void increment(String name, String... tags) {
+        Counter.builder(name).tags(tags).register(registry).increment();
+    }
+
+    public void record(String name, double amount, String... tags) {
+        DistributionSummary.builder(name).tags(tags).register(registry).record(amount);
+    }
+
+    /**
+     * 📊 Value holder behind a gauge; set it from whatever refreshes the figure.
+     */
+    public AtomicLong gauge(String name, String description) {
+        return gauges.computeIfAbsent(name, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder(key, value, AtomicLong::get).description(description).register(registry);
+            return value;
+        });
+    }
+
+    private Timer timer(String name, String outcome, String exception, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
@@ -0,0 +1,127 @@
+package com.demo.otp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.OtpToken;
+import com.demo.repository.OtpTokenRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Shared store for multi-node deployments (otp.store=database): one otp_tokens row per email
+ * (unique), written in the caller's transaction. Attempts are counted in a transaction of their own;
+ * a verified token is deleted in the caller's, so a failed registration leaves it usable.
+ * Expired rows are purged in batches on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "database")
+public class DatabaseOtpStore implements OtpStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseOtpStore.class);
+
+    @Autowired
+    private OtpTokenRepository otpTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${otp.database.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    private TransactionTemplate attemptTransaction;
+
+    @PostConstruct
+    void init() {
+        attemptTransaction = new TransactionTemplate(transactionManager);
+        attemptTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void put(String email, String otp, Duration ttl) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        if (otpTokenRepository.replaceCode(email, otp, expiresAt) == 0) {
+            otpTokenRepository.save(new OtpToken(email, otp, expiresAt));
+        }
+    }
+
+    @Override
+    @Transactional
+    public Outcome verify(String email, String otp) {
+        Long[] verifiedId = new Long[1];
+        // Own transaction: a failed attempt must stay counted when the caller rolls back
+        Outcome outcome = attemptTransaction.execute(tx -> {
+            Optional<OtpToken> found = otpTokenRepository.findByEmail(email);
+            if (found.isEmpty()) {
+                return Outcome.INVALID;
+            }
+            OtpToken token = found.get();
+            if (!token.getExpiresAt().isAfter(LocalDateTime.now())) {
+                otpTokenRepository.delete(token);
+                return Outcome.EXPIRED;
+            }
+            int attempt = token.getAttempts() + 1;
+            if (MessageDigest.isEqual(token.getOtp().getBytes(StandardCharsets.UTF_8), otp.getBytes(StandardCharsets.UTF_8))
+                    && attempt <= maxAttempts) {
+                verifiedId[0] = token.getId();
+                return Outcome.VERIFIED;
+            }
+            if (attempt >= maxAttempts) {
+                otpTokenRepository.delete(token);
+                return Outcome.TOO_MANY_ATTEMPTS;
+            }
+            token.setAttempts(attempt);
+            return Outcome.INVALID;
+        });
+        // Consumed with the caller's changes; the row lock makes a concurrent consumer wait for our outcome
+        if (outcome == Outcome.VERIFIED && otpTokenRepository.consume(verifiedId[0]) == 0) {
+            return Outcome.INVALID;
+        }
+        return outcome;
+    }
+
+    /**
+     * 🧹 Purge expired tokens in batches (one short transaction per batch)
+     */
+    @Scheduled(fixedDelayString = "${otp.database.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = otpTokenRepository.findExpiredIds(now, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty()) {
+                List<Long> batch = ids;
+                transactionTemplate.executeWithoutResult(status -> otpTokenRepository.deleteAllByIdInBatch(batch));
+                purged += batch.size();
+            }
+        } while (ids.size() == purgeBatchSize);
+        if (purged > 0) {
+            log.info("🧹 Purged {} expired OTP tokens", purged);
+        }
+    }
+}
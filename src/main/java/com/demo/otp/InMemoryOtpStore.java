@@ -0,0 +1,187 @@
+package com.demo.otp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demo.exception.OtpBacklogFullException;
+
+/**
+ * Default single-node store: codes live in a map and are expired by a hashed timing wheel
+ * (otp.memory.wheel-slots slots of otp.memory.tick-ms each), so expiry costs one slot scan per
+ * tick instead of a sweep over every code. Verification also checks the deadline, so a code
+ * never outlives its TTL by more than it takes to notice. Nothing is written to the database;
+ * puts and consumptions take effect when the caller's transaction commits.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryOtpStore.class);
+
+    private static final class Entry {
+        final String email;
+        final byte[] otp;
+        final long expiresAtMillis;
+        final long expiryTick;
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicBoolean claimed = new AtomicBoolean(); // verified by a transaction not yet finished
+
+        Entry(String email, byte[] otp, long expiresAtMillis, long expiryTick) {
+            this.email = email;
+            this.otp = otp;
+            this.expiresAtMillis = expiresAtMillis;
+            this.expiryTick = expiryTick;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry>[] wheel;
+    private final long tickMillis;
+    private final int maxAttempts;
+    private final int maxEntries;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore(
+            @Value("${otp.memory.tick-ms:1000}") long tickMillis,
+            @Value("${otp.memory.wheel-slots:512}") int wheelSlots,
+            @Value("${otp.memory.max-entries:100000}") int maxEntries,
+            @Value("${otp.max-attempts:5}") int maxAttempts) {
+        this.tickMillis = tickMillis;
+        this.maxEntries = maxEntries;
+        this.maxAttempts = maxAttempts;
+        this.wheel = new Queue[wheelSlots];
+        for (int i = 0; i < wheelSlots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    @Override
+    public void put(String email, String otp, Duration ttl) {
+        if (entries.size() >= maxEntries && !entries.containsKey(email)) {
+            throw new OtpBacklogFullException("Too many pending OTPs");
+        }
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        afterCommit(() -> {
+            long expiryTick = Math.max(expiresAt / tickMillis + 1, currentTick + 1); // round up: never expire early
+            Entry entry = new Entry(email, otp.getBytes(StandardCharsets.UTF_8), expiresAt, expiryTick);
+            entries.put(email, entry);
+            wheel[(int) (expiryTick % wheel.length)].add(entry);
+        });
+    }
+
+    @Override
+    public Outcome verify(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return Outcome.INVALID;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(email, entry);
+            return Outcome.EXPIRED;
+        }
+        int attempt = entry.attempts.incrementAndGet();
+        if (attempt > maxAttempts) {
+            entries.remove(email, entry);
+            return Outcome.TOO_MANY_ATTEMPTS;
+        }
+        if (MessageDigest.isEqual(entry.otp, otp.getBytes(StandardCharsets.UTF_8))) {
+            if (!entry.claimed.compareAndSet(false, true)) {
+                return Outcome.INVALID; // another registration is using this code
+            }
+            consumeOnCommit(entry);
+            return Outcome.VERIFIED;
+        }
+        if (attempt == maxAttempts) {
+            entries.remove(email, entry);
+            return Outcome.TOO_MANY_ATTEMPTS;
+        }
+        return Outcome.INVALID;
+    }
+
+    // Remove the code once the caller commits; release the claim if it rolls back
+    private void consumeOnCommit(Entry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entries.remove(entry.email, entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    entries.remove(entry.email, entry);
+                } else {
+                    entry.claimed.set(false);
+                }
+            }
+        });
+    }
+
+    // Run once the surrounding transaction commits (immediately outside a transaction)
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 🧹 Advance the wheel to the current tick, dropping codes whose deadline has passed.
+     * Entries replaced or consumed earlier are skipped by the identity check in remove.
+     */
+    @Scheduled(fixedRateString = "${otp.memory.tick-ms:1000}")
+    public void advance() {
+        long target = System.currentTimeMillis() / tickMillis;
+        long tick = currentTick;
+        if (target - tick > wheel.length) {
+            tick = target - wheel.length; // the wheel was stalled; one full turn covers every slot
+        }
+        int expired = 0;
+        for (; tick <= target; tick++) {
+            Iterator<Entry> it = wheel[(int) (tick % wheel.length)].iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.expiryTick <= target) {
+                    it.remove();
+                    if (entries.remove(entry.email, entry)) {
+                        expired++;
+                    }
+                } else if (entries.get(entry.email) != entry) {
+                    it.remove(); // replaced or consumed; nothing left to expire
+                }
+            }
+        }
+        currentTick = target;
+        if (expired > 0) {
+            log.debug("Expired {} OTPs", expired);
+        }
+    }
+}
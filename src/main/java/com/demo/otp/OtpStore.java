@@ -0,0 +1,25 @@
+package com.demo.otp;
+
+import java.time.Duration;
+
+/**
+ * Holds the pending one-time code per email. Codes are single use, expire after their TTL
+ * and are burned once the email reaches the per-code attempt limit (otp.max-attempts).
+ */
+public interface OtpStore {
+
+    enum Outcome { VERIFIED, INVALID, EXPIRED, TOO_MANY_ATTEMPTS }
+
+    /**
+     * Store a new code for the email, replacing any previous code and its attempt count,
+     * once the caller's transaction commits.
+     */
+    void put(String email, String otp, Duration ttl);
+
+    /**
+     * Check a code and count the attempt (failed attempts stay counted even if the caller rolls back).
+     * A VERIFIED code is consumed when the caller's transaction commits and stays usable if it
+     * rolls back; concurrent verifications of the same code succeed at most once.
+     */
+    Outcome verify(String email, String otp);
+}
@@ -0,0 +1,8 @@
+package com.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.demo.entity.BatchCheckpoint;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+}
@@ -1,5 +1,6 @@
 package com.demo.repository;
 
+import com.demo.dto.CartItemView;
 import com.demo.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -13,10 +14,19 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // 🔍 Fetch all items by Cart ID
     List<CartItem> findByCartId(Long cartId);
 
+    // 🔍 Cart lines with the product name joined in, without loading CartItem/Product entities
+    // (left join: a line whose product row cannot be joined stays in the cart, with a null name)
+    @Query("SELECT new com.demo.dto.CartItemView(ci.id, p.id, p.name, ci.quantity, ci.priceSnapshot) " +
+           "FROM CartItem ci LEFT JOIN ci.product p WHERE ci.cart.id = :cartId ORDER BY ci.id")
+    List<CartItemView> findViewsByCartId(Long cartId);
+
     // 🔍 Fetch all items by User ID (via cart)
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.user.id = :userId")
     List<CartItem> findByUserId(Long userId);
 
+    // 🔍 Does the user's cart contain anything?
+    boolean existsByCart_User_Id(Long userId);
+
     // 🧹 Delete all items by Cart ID
     @Transactional
     @Modifying
@@ -3,12 +3,26 @@ package com.demo.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import com.demo.dto.CartView;
 import com.demo.entity.Cart;
 import com.demo.entity.User;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     List<Cart> findByUser(User user);  // ✅ Not Optional
     Optional<Cart> findByUserId(Long userId);
+
+    // 🔍 Cart with its items in one query (cart mutations, checkout); products stay unloaded proxies
+    @EntityGraph(attributePaths = "items")
+    Optional<Cart> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Cart> findWithItemsByUserId(Long userId);
+
+    // 🔍 Cart id and owner only (the eager user association is not loaded)
+    @Query("SELECT new com.demo.dto.CartView(c.id, u.id) FROM Cart c LEFT JOIN c.user u WHERE c.id = :cartId")
+    Optional<CartView> findHeaderById(Long cartId);
 }
\ No newline at end of file
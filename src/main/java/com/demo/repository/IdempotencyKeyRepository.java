@@ -0,0 +1,43 @@
+package com.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.demo.entity.IdempotencyKey;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // ✅ Complete a claim inside the transaction that created the order; 0 rows = the claim was taken over
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = com.demo.entity.IdempotencyKey.Status.COMPLETED, "
+            + "k.orderId = :orderId WHERE k.id = :id "
+            + "AND k.status = com.demo.entity.IdempotencyKey.Status.IN_PROGRESS AND k.claimToken = :claimToken")
+    int markCompleted(String id, String claimToken, Long orderId);
+
+    // 🧹 Release our own unfinished claim after a failed request, so the client can retry the key
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id "
+            + "AND k.status = com.demo.entity.IdempotencyKey.Status.IN_PROGRESS AND k.claimToken = :claimToken")
+    int releaseClaim(String id, String claimToken);
+
+    // 🧹 Drop a claim whose request died before committing (lease expired)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id "
+            + "AND k.status = com.demo.entity.IdempotencyKey.Status.IN_PROGRESS AND k.createdAt < :cutoff")
+    int deleteStaleClaim(String id, LocalDateTime cutoff);
+
+    // 🔍 One batch of expired keys
+    @Query("SELECT k.id FROM IdempotencyKey k WHERE k.expiresAt <= :now ORDER BY k.expiresAt")
+    List<String> findExpiredIds(LocalDateTime now, Pageable batch);
+}
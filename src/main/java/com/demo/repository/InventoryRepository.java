@@ -1,18 +1,56 @@
 package com.demo.repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.demo.entity.Inventory;
 import com.demo.entity.Product;
+
+import jakarta.persistence.LockModeType;
 @Repository
 public interface InventoryRepository  extends JpaRepository<Inventory, Long>{
 
 	Optional<Inventory> findByProductId(Long productId); // ✅ correct
 
 	Inventory findByProduct(Product product);
-	
+
+	boolean existsByProductId(Long productId);
+
+	// 🔍 Counter slot count only (0 = single-row mode)
+	@Query("SELECT i.slotCount FROM Inventory i WHERE i.product.id = :productId")
+	Optional<Integer> findSlotCountByProductId(Long productId);
+
+	// 🔍 Stock on the inventory row plus any counter slots, in one round trip
+	@Query("SELECT i.quantity + (SELECT COALESCE(SUM(s.quantity), 0) FROM InventorySlot s WHERE s.product.id = :productId) "
+			+ "FROM Inventory i WHERE i.product.id = :productId")
+	Optional<Long> findAvailableQuantityByProductId(Long productId);
+
+	// 🔒 Lock the inventory row while switching stock modes
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
+	Optional<Inventory> lockByProductId(Long productId);
+
+	// 🔒 Shared lock on the inventory row: slot reservations run side by side, mode switches wait for them
+	@Lock(LockModeType.PESSIMISTIC_READ)
+	@Query("SELECT i FROM Inventory i WHERE i.product.id = :productId")
+	Optional<Inventory> lockSharedByProductId(Long productId);
+
+	// ✅ Guarded decrement: affects 0 rows when stock minus what other carts hold cannot cover qty
+	@Modifying
+	@Query("UPDATE Inventory i SET i.quantity = i.quantity - :qty, i.lastUpdated = :now "
+			+ "WHERE i.product.id = :productId AND i.quantity >= :qty + :heldByOthers")
+	int decrementIfAvailable(Long productId, int qty, int heldByOthers, LocalDateTime now);
+
+	// ✅ Return reserved quantity to stock
+	@Modifying
+	@Query("UPDATE Inventory i SET i.quantity = i.quantity + :qty, i.lastUpdated = :now "
+			+ "WHERE i.product.id = :productId")
+	int increment(Long productId, int qty, LocalDateTime now);
 
 }
@@ -0,0 +1,47 @@
+package com.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.demo.entity.InventorySlot;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface InventorySlotRepository extends JpaRepository<InventorySlot, Long> {
+
+    // 🔍 Scalar slot levels (non-locking, does not put slot entities in the persistence context)
+    interface SlotLevel {
+        int getSlotNo();
+        int getQuantity();
+    }
+
+    @Query("SELECT s.slotNo AS slotNo, s.quantity AS quantity FROM InventorySlot s "
+            + "WHERE s.product.id = :productId ORDER BY s.slotNo")
+    List<SlotLevel> findLevelsByProductId(Long productId);
+
+    // 🔒 Lock every slot of a product in slot order (multi-slot drain / rebalancing)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InventorySlot s WHERE s.product.id = :productId ORDER BY s.slotNo")
+    List<InventorySlot> lockByProductId(Long productId);
+
+    // ✅ Guarded decrement of one slot: 0 rows when the slot cannot cover qty
+    @Modifying
+    @Query("UPDATE InventorySlot s SET s.quantity = s.quantity - :qty "
+            + "WHERE s.product.id = :productId AND s.slotNo = :slotNo AND s.quantity >= :qty")
+    int decrementIfAvailable(Long productId, int slotNo, int qty);
+
+    @Modifying
+    @Query("UPDATE InventorySlot s SET s.quantity = s.quantity + :qty "
+            + "WHERE s.product.id = :productId AND s.slotNo = :slotNo")
+    int increment(Long productId, int slotNo, int qty);
+
+    @Modifying
+    @Query("DELETE FROM InventorySlot s WHERE s.product.id = :productId")
+    int deleteByProductId(Long productId);
+}
@@ -0,0 +1,21 @@
+package com.demo.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.demo.entity.InvoiceNumberBlock;
+
+public interface InvoiceNumberBlockRepository extends JpaRepository<InvoiceNumberBlock, LocalDate> {
+
+    // ✅ Reserve a block: the row lock is held until commit, so the read-back below is ours
+    @Modifying
+    @Query("UPDATE InvoiceNumberBlock b SET b.nextValue = b.nextValue + :size WHERE b.day = :day")
+    int advance(LocalDate day, long size);
+
+    @Query("SELECT b.nextValue FROM InvoiceNumberBlock b WHERE b.day = :day")
+    Optional<Long> findNextValue(LocalDate day);
+}
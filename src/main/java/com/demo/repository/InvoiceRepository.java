@@ -1,9 +1,13 @@
 package com.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.demo.entity.Invoice;
@@ -11,11 +15,33 @@ import com.demo.entity.InvoiceStatus;
 import com.demo.entity.Order;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepository extends JpaRepository<Invoice, Long>, JpaSpecificationExecutor<Invoice> {
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     List<Invoice> findByUserId(Long userId);
     List<Invoice> findByStatus(InvoiceStatus status);
     
     // ✅ Added for PDF generation
     Optional<Invoice> findByOrder(Order order);
+
+    Optional<Invoice> findByOrderId(Long orderId);
+
+    // 🔍 Invoices with user, order and items in one query (export / rendering); the user's cart is
+    // fetched too, since User.cart is an eager inverse one-to-one that would cost one SELECT per user
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.user u LEFT JOIN FETCH u.cart JOIN FETCH i.order o LEFT JOIN FETCH o.orderItems "
+            + "WHERE i.id IN :ids ORDER BY i.id")
+    List<Invoice> findForRenderingByIdIn(Collection<Long> ids);
+
+    // 🔍 Same fetch plan for a single order's invoice (PDF download, invoice JSON)
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.user u LEFT JOIN FETCH u.cart JOIN FETCH i.order o LEFT JOIN FETCH o.orderItems "
+            + "WHERE o.id = :orderId")
+    Optional<Invoice> findForRenderingByOrderId(Long orderId);
+
+    // ✅ Point an invoice at its current rendering
+    @Modifying
+    @Query("UPDATE Invoice i SET i.filePath = :filePath WHERE i.id = :id")
+    int updateFilePath(Long id, String filePath);
+
+    // 🔍 Which of the given store paths are still recorded on an invoice (PDF sweeper)
+    @Query("SELECT i.filePath FROM Invoice i WHERE i.filePath IN :paths")
+    List<String> findFilePathsIn(Collection<String> paths);
 }
\ No newline at end of file
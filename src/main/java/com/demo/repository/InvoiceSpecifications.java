@@ -0,0 +1,48 @@
+package com.demo.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.demo.entity.Invoice;
+import com.demo.entity.InvoiceStatus;
+
+/**
+ * Reusable filters and keyset predicates for invoice export queries.
+ */
+public final class InvoiceSpecifications {
+
+    private InvoiceSpecifications() {}
+
+    // ✅ Invoices of one user (ignored when null)
+    public static Specification<Invoice> forUser(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("user").get("id"), userId);
+    }
+
+    // ✅ Exact status match (ignored when null)
+    public static Specification<Invoice> hasStatus(InvoiceStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    // ✅ generatedAt in [from, to) (either bound optional)
+    public static Specification<Invoice> generatedBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            var generatedAt = root.<LocalDateTime>get("generatedAt");
+            if (from != null && to != null) {
+                return cb.and(cb.greaterThanOrEqualTo(generatedAt, from), cb.lessThan(generatedAt, to));
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(generatedAt, from);
+            }
+            if (to != null) {
+                return cb.lessThan(generatedAt, to);
+            }
+            return null;
+        };
+    }
+
+    // ✅ Seek past the last exported invoice
+    public static Specification<Invoice> idAfter(Long lastId) {
+        return (root, query, cb) -> lastId == null ? null : cb.greaterThan(root.get("id"), lastId);
+    }
+}
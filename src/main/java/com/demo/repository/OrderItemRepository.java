@@ -1,8 +1,11 @@
 package com.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import com.demo.entity.OrderItem;
 
@@ -11,5 +14,17 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
 	List<OrderItem> findByOrderId(Long orderId);
 
+	// 🔍 Items of a whole history page in one round trip
+	@Query("SELECT i FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.order.id, i.id")
+	List<OrderItem> findByOrderIds(Collection<Long> orderIds);
 
+	// ✅ Snapshot name/price from the product and drop the FK in one statement
+	// (product is assigned last: MySQL evaluates SET clauses left to right)
+	@Modifying
+	@Query("UPDATE OrderItem i SET "
+			+ "i.productName = (SELECT p.name FROM Product p WHERE p.id = i.product.id), "
+			+ "i.productPrice = (SELECT CAST(p.price AS BigDecimal) FROM Product p WHERE p.id = i.product.id), "
+			+ "i.product = null "
+			+ "WHERE i.order.id IN :orderIds AND i.product IS NOT NULL")
+	int snapshotAndUnlinkProducts(Collection<Long> orderIds);
 }
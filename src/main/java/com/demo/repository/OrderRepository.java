@@ -1,11 +1,16 @@
 package com.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import com.demo.entity.Order;
 import com.demo.entity.User;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
     // ✅ Find all orders of a specific user
     List<Order> findByUser(User user);
@@ -15,4 +20,26 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     // ✅ Find orders by status (e.g., "PENDING", "DELIVERED")
     List<Order> findByStatus(String status);
-}
\ No newline at end of file
+
+    // 🔍 Which of the given ids exist (ids only, no hydration)
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :orderIds")
+    List<Long> findExistingIds(Collection<Long> orderIds);
+
+    // ✅ Set-based status transition
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :orderIds")
+    int updateStatusByIds(Collection<Long> orderIds, String status);
+
+    // 🔍 Next ids (ascending) of orders that have no invoice yet
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId "
+            + "AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.order = o) ORDER BY o.id")
+    List<Long> findIdsWithoutInvoice(Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.id > :afterId "
+            + "AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.order = o)")
+    long countWithoutInvoice(Long afterId);
+
+    // 🔍 Orders with user and items in one query (invoice rendering)
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.orderItems WHERE o.id IN :orderIds")
+    List<Order> findWithUserAndItemsByIdIn(Collection<Long> orderIds);
+}
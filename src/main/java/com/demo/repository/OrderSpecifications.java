@@ -0,0 +1,43 @@
+package com.demo.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.demo.entity.Order;
+
+/**
+ * Reusable filters and keyset predicates for order history queries.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {}
+
+    // ✅ Orders placed by one user
+    public static Specification<Order> forUser(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    // ✅ Exact status match (ignored when null/blank)
+    public static Specification<Order> hasStatus(String status) {
+        return (root, query, cb) -> (status == null || status.isBlank())
+                ? null
+                : cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * ✅ Seek past the last row of the previous page (newest first):
+     * (createdAt, id) < (lastCreatedAt, lastId).
+     */
+    public static Specification<Order> placedBefore(LocalDateTime lastCreatedAt, Long lastId) {
+        return (root, query, cb) -> {
+            if (lastCreatedAt == null || lastId == null) {
+                return null;
+            }
+            var createdAt = root.<LocalDateTime>get("createdAt");
+            return cb.or(
+                    cb.lessThan(createdAt, lastCreatedAt),
+                    cb.and(cb.equal(createdAt, lastCreatedAt), cb.lessThan(root.get("id"), lastId)));
+        };
+    }
+}
@@ -1,11 +1,34 @@
 package com.demo.repository;
 
 import com.demo.entity.OtpToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface OtpTokenRepository extends JpaRepository<OtpToken, Long> {
-    Optional<OtpToken> findByEmailAndOtp(String email, String otp);
-    void deleteByEmail(String email);
-}
\ No newline at end of file
+    // 🔒 The email's token, locked so concurrent verifications count attempts in order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OtpToken> findByEmail(String email);
+
+    // ✅ Replace the email's code in place (0 rows: no token yet, insert one)
+    @Modifying
+    @Query("UPDATE OtpToken t SET t.otp = :otp, t.expiresAt = :expiresAt, t.attempts = 0 WHERE t.email = :email")
+    int replaceCode(String email, String otp, LocalDateTime expiresAt);
+
+    // ✅ Consume a verified token; 0 rows when a concurrent registration consumed it first
+    @Modifying
+    @Query("DELETE FROM OtpToken t WHERE t.id = :id")
+    int consume(Long id);
+
+    // 🔍 One batch of expired tokens, oldest first
+    @Query("SELECT t.id FROM OtpToken t WHERE t.expiresAt < :now ORDER BY t.expiresAt")
+    List<Long> findExpiredIds(LocalDateTime now, Pageable batch);
+}
@@ -0,0 +1,57 @@
+package com.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.demo.entity.OutboundMail;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    // 🔒 Next batch of due messages; rows claimed by another worker are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("SELECT m FROM OutboundMail m WHERE m.status = com.demo.entity.OutboundMail.Status.PENDING " +
+           "AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt, m.id")
+    List<OutboundMail> lockDue(LocalDateTime now, Pageable batch);
+
+    // 🔒 Claim: count the attempt and hide the rows until the send lease expires
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.attempts = m.attempts + 1, m.nextAttemptAt = :leaseUntil WHERE m.id IN :ids")
+    int claim(Collection<Long> ids, LocalDateTime leaseUntil);
+
+    // Finished rows drop their body (one-time codes must not outlive delivery); blanked rather than
+    // NULLed so existing schemas (ddl-auto=update keeps NOT NULL) accept it
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.status = com.demo.entity.OutboundMail.Status.SENT, m.sentAt = :now, " +
+           "m.lastError = NULL, m.body = '' WHERE m.id IN :ids")
+    int markSent(Collection<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.id = :id")
+    int reschedule(Long id, LocalDateTime nextAttemptAt, String error);
+
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.status = com.demo.entity.OutboundMail.Status.FAILED, m.lastError = :error, " +
+           "m.body = '' WHERE m.id = :id")
+    int markFailed(Long id, String error);
+
+    long countByStatus(OutboundMail.Status status);
+
+    // 🔍 One batch of finished (sent or failed) rows older than the retention window
+    @Query("SELECT m.id FROM OutboundMail m WHERE m.status <> com.demo.entity.OutboundMail.Status.PENDING " +
+           "AND m.createdAt < :cutoff ORDER BY m.id")
+    List<Long> findFinishedBefore(LocalDateTime cutoff, Pageable batch);
+}
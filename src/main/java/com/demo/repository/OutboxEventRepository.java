@@ -0,0 +1,50 @@
+package com.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.demo.entity.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // 🔍 Oldest due events in commit order. Events still backing off are skipped, and so is every
+    // later event of their aggregate, so a stalled head cannot fill the batch and starve the rest
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.failedAt IS NULL "
+            + "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) "
+            + "AND NOT EXISTS (SELECT 1 FROM OutboxEvent b WHERE b.aggregateType = e.aggregateType "
+            + "AND b.aggregateId = e.aggregateId AND b.id < e.id AND b.publishedAt IS NULL AND b.failedAt IS NULL "
+            + "AND b.nextAttemptAt > :now) "
+            + "ORDER BY e.id")
+    List<OutboxEvent> findDue(LocalDateTime now, Pageable batch);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :now, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markPublished(Collection<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, "
+            + "e.lastError = :error WHERE e.id = :id")
+    int recordFailedAttempt(Long id, LocalDateTime nextAttemptAt, String error);
+
+    // ⛔ Dead-letter an event that ran out of attempts
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.failedAt = :now, e.lastError = :error "
+            + "WHERE e.id = :id")
+    int markFailed(Long id, LocalDateTime now, String error);
+
+    long countByPublishedAtIsNullAndFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+
+    // 🔍 One batch of published rows older than the retention window
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.publishedAt < :cutoff ORDER BY e.id")
+    List<Long> findPublishedBefore(LocalDateTime cutoff, Pageable batch);
+}
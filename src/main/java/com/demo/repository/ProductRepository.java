@@ -2,13 +2,39 @@ package com.demo.repository;
 
 import com.demo.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     /**
      * 🔍 Fetch products with stock below the defined threshold.
      */
     List<Product> findByStockLessThan(int threshold);
-}
\ No newline at end of file
+
+    long countByStockLessThan(int threshold);
+
+    /**
+     * 🔍 Current stock only (no entity hydration).
+     */
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :productId")
+    Optional<Integer> findStockById(Long productId);
+
+    /**
+     * ✅ Guarded decrement: affects 0 rows when stock is insufficient.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :qty WHERE p.id = :productId AND p.stock >= :qty")
+    int decrementStockIfAvailable(Long productId, int qty);
+
+    /**
+     * ✅ Return quantity to stock.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :qty WHERE p.id = :productId")
+    int incrementStock(Long productId, int qty);
+}
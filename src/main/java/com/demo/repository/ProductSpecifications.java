@@ -0,0 +1,61 @@
+package com.demo.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.demo.entity.Product;
+
+/**
+ * Reusable filters and keyset predicates for product listing queries.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    // ✅ Exact category match (ignored when null/blank)
+    public static Specification<Product> hasCategory(String category) {
+        return (root, query, cb) -> (category == null || category.isBlank())
+                ? null
+                : cb.equal(root.get("category"), category);
+    }
+
+    // ✅ Inclusive price range (either bound optional)
+    public static Specification<Product> priceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            if (minPrice != null && maxPrice != null) {
+                return cb.between(root.get("price"), minPrice, maxPrice);
+            }
+            if (minPrice != null) {
+                return cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+            }
+            if (maxPrice != null) {
+                return cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * ✅ Seek past the last row of the previous page:
+     * (sortField, id) > (lastValue, lastId) for ascending, < for descending.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Product> after(String sortField, boolean descending,
+                                               Comparable lastValue, Long lastId) {
+        return (root, query, cb) -> {
+            if (lastId == null) {
+                return null;
+            }
+            if ("id".equals(sortField)) {
+                return descending
+                        ? cb.lessThan(root.get("id"), lastId)
+                        : cb.greaterThan(root.get("id"), lastId);
+            }
+            var field = root.<Comparable>get(sortField);
+            var beyondValue = descending ? cb.lessThan(field, lastValue) : cb.greaterThan(field, lastValue);
+            var tieBreak = cb.and(
+                    cb.equal(field, lastValue),
+                    descending ? cb.lessThan(root.get("id"), lastId) : cb.greaterThan(root.get("id"), lastId));
+            return cb.or(beyondValue, tieBreak);
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.demo.entity.StockHold;
+
+@Repository
+public interface StockHoldRepository extends JpaRepository<StockHold, Long> {
+
+    // 🔍 Holds still alive at startup
+    List<StockHold> findByExpiresAtAfter(LocalDateTime now);
+
+    // 🔍 One batch of expired hold ids
+    @Query("SELECT h.id FROM StockHold h WHERE h.expiresAt <= :now ORDER BY h.id")
+    List<Long> findExpiredIds(LocalDateTime now, Pageable batch);
+
+    // 🧹 Replace-by-cart: drop the persisted snapshot of the given carts
+    @Modifying
+    @Query("DELETE FROM StockHold h WHERE h.cartId IN :cartIds")
+    int deleteByCartIdIn(Collection<Long> cartIds);
+}
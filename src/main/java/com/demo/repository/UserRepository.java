@@ -1,9 +1,12 @@
 package com.demo.repository;
 
+import com.demo.dto.UserView;
 import com.demo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +17,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // ✅ check if user exists by email
     boolean existsByEmail(String email);
+
+    // 🔍 Profile projection: one row, no orders/cart graph
+    @Query("SELECT new com.demo.dto.UserView(u.id, u.name, u.email, u.billingAddress, u.shippingAddress, u.emailVerified, c.id) " +
+           "FROM User u LEFT JOIN u.cart c WHERE u.id = :id")
+    Optional<UserView> findViewById(Long id);
+
+    @Query("SELECT new com.demo.dto.UserView(u.id, u.name, u.email, u.billingAddress, u.shippingAddress, u.emailVerified, c.id) " +
+           "FROM User u LEFT JOIN u.cart c ORDER BY u.id")
+    List<UserView> findAllViews();
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.demo.service;
 
+import com.demo.dto.CartItemView;
+import com.demo.dto.CartView;
+import com.demo.dto.FieldSelection;
 import com.demo.entity.Cart;
 import com.demo.entity.CartItem;
 import com.demo.entity.Product;
 import com.demo.exception.CustomException;
+import com.demo.metrics.ShopMetrics;
 import com.demo.repository.CartItemRepository;
 import com.demo.repository.CartRepository;
 import com.demo.repository.ProductRepository;
@@ -32,15 +36,35 @@ public class CartService {
     @Autowired
     private CartItemRepository cartItemRepository;
 
-    // ✅ Get cart by ID
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ShopMetrics shopMetrics;
+
+    // ✅ Get cart by ID, items included
     public Cart getCart(Long cartId) {
-        return cartRepository.findById(cartId)
+        return cartRepository.findWithItemsById(cartId)
                 .orElseThrow(() -> new CustomException("Cart not found", "with id", cartId));
     }
 
-    // ✅ Get cart by user ID
+    // ✅ Cart response built from two projection queries (header, lines); lines are skipped
+    // when the fields= selection needs none of items/itemCount/total
+    @Transactional(readOnly = true)
+    public CartView getCartView(Long cartId, FieldSelection fields) {
+        CartView header = cartRepository.findHeaderById(cartId)
+                .orElseThrow(() -> new CustomException("Cart not found", "with id", cartId));
+        boolean needsItems = fields.includes("items") || fields.includes("itemCount") || fields.includes("total");
+        List<CartItemView> items = needsItems ? cartItemRepository.findViewsByCartId(cartId) : null;
+        return CartView.of(header.id(), header.userId(), items);
+    }
+
+    // ✅ Get cart by user ID, items included
     public Cart getCartByUserId(Long userId) {
-        return cartRepository.findByUserId(userId)
+        return cartRepository.findWithItemsByUserId(userId)
                 .orElseThrow(() -> new CustomException("Cart not found", "for user", userId));
     }
 
@@ -52,28 +76,30 @@ public class CartService {
 
     // ✅ Add product to cart
     public Cart addItemToCart(Long cartId, Long productId, int quantity) {
+        shopMetrics.timeTransaction(ShopMetrics.CART_ADD);
         if (quantity <= 0) {
             throw new CustomException("Invalid quantity", "Must be greater than zero", quantity);
         }
 
         Cart cart = getCart(cartId);
-        Product product = productRepository.findById(productId)
+        Product product = productCache.get(productId)
                 .orElseThrow(() -> new CustomException("Product not found", "with id", productId));
 
-        if (product.getStock() < quantity) {
-            throw new CustomException("Insufficient stock", "Available stock is", product.getStock());
-        }
-
         Optional<CartItem> existingItemOpt = cart.getItems().stream()
                 .filter(item -> item.getProduct().getId().equals(productId))
                 .findFirst();
 
+        // ✅ Hold the cart's total quantity of this product (fails fast if not available)
+        int heldQuantity = existingItemOpt.map(CartItem::getQuantity).orElse(0) + quantity;
+        stockReservationService.hold(cartId, productId, heldQuantity);
+
         if (existingItemOpt.isPresent()) {
             CartItem existingItem = existingItemOpt.get();
             existingItem.setQuantity(existingItem.getQuantity() + quantity);
             log.info("Updated quantity of product {} in cart {}", productId, cartId);
         } else {
-            CartItem newItem = new CartItem(product, quantity, product.getPrice(), cart);
+            // Cached copy is detached; link the item through a reference proxy (no SELECT)
+            CartItem newItem = new CartItem(productRepository.getReferenceById(productId), quantity, product.getPrice(), cart);
             cart.getItems().add(newItem);
             log.info("Added new product {} to cart {}", productId, cartId);
         }
@@ -93,6 +119,7 @@ public class CartService {
 
         cart.getItems().remove(item);
         cartItemRepository.delete(item);
+        stockReservationService.release(cartId, item.getProduct().getId());
         log.info("Removed item {} from cart {}", itemId, cartId);
 
         return cartRepository.save(cart);
@@ -112,6 +139,7 @@ public class CartService {
             throw new IllegalArgumentException("Item does not belong to this cart");
         }
 
+        stockReservationService.hold(cartId, item.getProduct().getId(), quantity);
         item.setQuantity(quantity);
         log.info("Updated quantity of item {} in cart {} to {}", itemId, cartId, quantity);
 
@@ -123,6 +151,7 @@ public class CartService {
         Cart cart = getCart(cartId);
         cart.getItems().forEach(cartItemRepository::delete);
         cart.getItems().clear();
+        stockReservationService.releaseCart(cartId);
         log.info("Cleared all items from cart {}", cartId);
         return cartRepository.save(cart);
     }
@@ -133,6 +162,7 @@ public class CartService {
         cart.getItems().forEach(cartItemRepository::delete);
         cart.getItems().clear();
         cartRepository.save(cart);
+        stockReservationService.releaseCart(cart.getId());
         log.info("Cleared cart for user {}", userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.demo.entity.IdempotencyKey;
+import com.demo.entity.Order;
+import com.demo.exception.IdempotencyConflictException;
+import com.demo.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Idempotent order placement keyed by the client's Idempotency-Key header.
+ * Completed keys are answered from a compact in-memory map (key -> order id) and, after a
+ * restart or on another node, from the idempotency_keys table. Concurrent duplicates on this
+ * node wait for the first request; duplicates on other nodes get 409 while it is in progress.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public record Result(Order order, boolean replayed) {}
+
+    private record Completed(String fingerprint, Long orderId) {}
+
+    private record InFlight(String fingerprint, CompletableFuture<Long> orderId) {}
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.max-keys-in-memory:100000}")
+    private long maxKeysInMemory;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.claim-lease-seconds:120}")
+    private long claimLeaseSeconds;
+
+    private Cache<String, Completed> completed;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(maxKeysInMemory)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /**
+     * ✅ Place the order at most once per (user, key); repeats get the stored order back.
+     */
+    public Result placeOrder(String key, Long userId, String paymentMethod) {
+        String id = userId + ":" + key;
+        String fingerprint = "placeOrder:" + userId + ":" + paymentMethod;
+
+        // Fast path: already completed (this node)
+        Completed done = completed.getIfPresent(id);
+        if (done != null) {
+            return replay(done, fingerprint);
+        }
+
+        // Same key already running on this node: wait for its outcome (same request only)
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            rejectReuse(running.fingerprint(), fingerprint);
+            return new Result(orderService.getOrderById(await(running.orderId())), true);
+        }
+
+        try {
+            Result result = claimAndPlace(id, fingerprint, userId, paymentMethod, true);
+            mine.orderId().complete(result.order().getId());
+            return result;
+        } catch (RuntimeException e) {
+            mine.orderId().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /**
+     * ✅ Drop expired keys from the table in batches
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpiredKeys() {
+        int purged = 0;
+        List<String> batch;
+        do {
+            batch = idempotencyKeyRepository.findExpiredIds(LocalDateTime.now(), PageRequest.of(0, 500));
+            if (!batch.isEmpty()) {
+                idempotencyKeyRepository.deleteAllByIdInBatch(batch);
+                purged += batch.size();
+            }
+        } while (batch.size() == 500);
+        if (purged > 0) {
+            log.info("🧹 Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private Result claimAndPlace(String id, String fingerprint, Long userId, String paymentMethod,
+                                 boolean mayTakeOver) {
+        IdempotencyKey claim = new IdempotencyKey(id, fingerprint, LocalDateTime.now().plusHours(ttlHours));
+        try {
+            idempotencyKeyRepository.saveAndFlush(claim);
+        } catch (DataIntegrityViolationException e) {
+            // An unfinished claim past its lease never committed an order: take it over once
+            if (mayTakeOver && idempotencyKeyRepository.deleteStaleClaim(id,
+                    LocalDateTime.now().minusSeconds(claimLeaseSeconds)) == 1) {
+                return claimAndPlace(id, fingerprint, userId, paymentMethod, false);
+            }
+            // Claimed before (restart, other node or expired from memory): consult the durable record
+            return new Result(orderService.getOrderById(fromDatabase(id, fingerprint)), true);
+        }
+
+        try {
+            Order order = orderService.placeOrder(userId, paymentMethod, id, claim.getClaimToken());
+            completed.put(id, new Completed(fingerprint, order.getId()));
+            return new Result(order, false);
+        } catch (RuntimeException e) {
+            // Release our claim so the client can retry with the same key (never a claim that took ours over)
+            idempotencyKeyRepository.releaseClaim(id, claim.getClaimToken());
+            throw e;
+        }
+    }
+
+    private Long fromDatabase(String id, String fingerprint) {
+        IdempotencyKey record = idempotencyKeyRepository.findById(id)
+                .orElseThrow(() -> new IdempotencyConflictException("IDEMPOTENCY_IN_PROGRESS",
+                        "A request with this Idempotency-Key was just released; retry."));
+        rejectReuse(record.getRequestFingerprint(), fingerprint);
+        if (record.getStatus() != IdempotencyKey.Status.COMPLETED) {
+            throw new IdempotencyConflictException("IDEMPOTENCY_IN_PROGRESS",
+                    "A request with this Idempotency-Key is still being processed.");
+        }
+        completed.put(id, new Completed(fingerprint, record.getOrderId()));
+        return record.getOrderId();
+    }
+
+    private Result replay(Completed done, String fingerprint) {
+        rejectReuse(done.fingerprint(), fingerprint);
+        return new Result(orderService.getOrderById(done.orderId()), true);
+    }
+
+    private static void rejectReuse(String original, String fingerprint) {
+        if (!original.equals(fingerprint)) {
+            throw new IdempotencyConflictException("IDEMPOTENCY_KEY_REUSED",
+                    "Idempotency-Key was already used for a different request.");
+        }
+    }
+
+    private Long await(CompletableFuture<Long> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("IDEMPOTENCY_IN_PROGRESS",
+                    "A request with this Idempotency-Key is still being processed.");
+        } catch (ExecutionException e) {
+            throw new IdempotencyConflictException("IDEMPOTENCY_PREVIOUS_FAILED",
+                    "The original request with this Idempotency-Key failed; retry.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("IDEMPOTENCY_IN_PROGRESS", "Interrupted while waiting.");
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.demo.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +19,7 @@ import com.demo.entity.Order;
 import com.demo.entity.OrderItem;
 import com.demo.entity.Product;
 import com.demo.exception.CustomException;
+import com.demo.metrics.ShopMetrics;
 import com.demo.repository.InventoryRepository;
 import com.demo.repository.ProductRepository;
 
@@ -24,55 +30,141 @@ public class InventoryService {
     private ProductRepository productRepository;
     @Autowired
     private InventoryRepository inventoryRepository;
-
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private StockShardService stockShardService;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private ShopMetrics shopMetrics;
 
     private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
     private static final int LOW_STOCK_THRESHOLD = 5;
 
     /**
-     * ✅ Deduct stock based on Order entity (used in synchronous flow)
+     * ✅ Deduct stock based on Order entity (used in synchronous flow).
+     * One guarded UPDATE per product, applied in product-id order so concurrent
+     * multi-line deductions always lock rows in the same sequence.
      */
     @Transactional
     public void deductStock(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = fetchProduct(item.getProduct().getId());
-            int remainingStock = product.getStock() - item.getQuantity();
+        for (Map.Entry<Long, Integer> line : quantitiesByProduct(order).entrySet()) {
+            Long productId = line.getKey();
+            int quantity = line.getValue();
 
-            if (remainingStock < 0) {
-                throw new CustomException("Insufficient stock", "Available", product.getStock());
+            int updated = productRepository.decrementStockIfAvailable(productId, quantity);
+            if (updated == 0) {
+                int available = productRepository.findStockById(productId)
+                    .orElseThrow(() -> {
+                        reservationFailed("deduct", "missing");
+                        return new CustomException("Product not found", "with ID", productId);
+                    });
+                reservationFailed("deduct", "insufficient");
+                throw new CustomException("Insufficient stock", "Available", available);
             }
+            productCache.invalidate(productId);
 
-            product.setStock(remainingStock);
-            productRepository.save(product);
+            int remainingStock = productRepository.findStockById(productId).orElse(0);
+            log.info("✅ Stock updated for product {}: remaining {}", productId, remainingStock);
+            checkLowStock(productId, remainingStock);
 
-            log.info("✅ Stock updated for '{}': remaining {}", product.getName(), remainingStock);
-            checkLowStock(product);
+            outboxService.record("inventory", productId, "StockDeducted", OutboxService.payload(
+                    "productId", productId,
+                    "quantity", quantity,
+                    "remaining", remainingStock,
+                    "orderId", order.getId()));
         }
     }
 
     /**
-     * ✅ Deduct stock based on Kafka event payload
+     * ✅ Restore stock based on Order entity (compensation)
      */
-    
-     
     @Transactional
     public void restoreStock(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = fetchProduct(item.getProduct().getId());
-            product.setStock(product.getStock() + item.getQuantity());
-            productRepository.save(product);
+        for (Map.Entry<Long, Integer> line : quantitiesByProduct(order).entrySet()) {
+            Long productId = line.getKey();
+            if (productRepository.incrementStock(productId, line.getValue()) == 0) {
+                throw new CustomException("Product not found", "with ID", productId);
+            }
+            productCache.invalidate(productId);
+
+            log.info("↩️ Stock restored for product {}: +{}", productId, line.getValue());
+            outboxService.record("inventory", productId, "StockRestored", OutboxService.payload(
+                    "productId", productId,
+                    "quantity", line.getValue(),
+                    "orderId", order.getId()));
+        }
+    }
+
+    /**
+     * ✅ Reserve inventory for checkout with one guarded UPDATE per product.
+     * Lines are applied in ascending product-id order so multi-line orders cannot deadlock.
+     * Stock promised to other carts by live holds stays untouched: the guard requires
+     * quantity + held-by-others, so a cart without a hold cannot buy another cart's units.
+     * Sharded products reserve from one of their counter slots instead of the Inventory row.
+     * Throws IllegalStateException (rolling back the caller) when any line cannot be reserved.
+     */
+    @Transactional
+    public void reserveInventory(Long cartId, Map<Long, Integer> quantitiesByProduct) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(quantitiesByProduct).entrySet()) {
+            Long productId = line.getKey();
+            int heldByOthers = stockReservationService.getHeldByOthers(productId, cartId);
+            if (stockShardService.isSharded(productId) && reserveSharded(productId, line.getValue(), heldByOthers)) {
+                continue;
+            }
+            int updated = inventoryRepository.decrementIfAvailable(productId, line.getValue(), heldByOthers, now);
+            log.debug("Inventory reservation for product {} x{} affected {} row(s)", productId, line.getValue(), updated);
+            if (updated == 0) {
+                // Another node may have switched the product to sharded mode
+                if (stockShardService.refreshSharded(productId) && reserveSharded(productId, line.getValue(), heldByOthers)) {
+                    continue;
+                }
+                if (!inventoryRepository.existsByProductId(productId)) {
+                    reservationFailed("checkout", "missing");
+                    throw new IllegalStateException("Inventory not found for product: " + productId);
+                }
+                reservationFailed("checkout", heldByOthers > 0 ? "held" : "insufficient");
+                throw new IllegalStateException("Insufficient stock for product: " + productId);
+            }
+        }
+    }
+
+    // Slots are guarded one at a time, so holds of other carts are checked against the total afterwards
+    private boolean reserveSharded(Long productId, int quantity, int heldByOthers) {
+        if (!stockShardService.reserve(productId, quantity)) {
+            return false;
+        }
+        if (heldByOthers > 0 && stockShardService.getAvailableQuantity(productId) < heldByOthers) {
+            reservationFailed("checkout", "held");
+            throw new IllegalStateException("Insufficient stock for product: " + productId);
+        }
+        return true;
+    }
 
-            log.info("↩️ Stock restored for '{}': new stock {}", product.getName(), product.getStock());
+    /**
+     * ✅ Release previously reserved inventory (compensation for reserveInventory)
+     */
+    @Transactional
+    public void releaseInventory(Map<Long, Integer> quantitiesByProduct) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(quantitiesByProduct).entrySet()) {
+            if (!stockShardService.release(line.getKey(), line.getValue())) {
+                inventoryRepository.increment(line.getKey(), line.getValue(), now);
+            }
         }
     }
 
     /**
-     * ✅ Validate stock before adding to cart
+     * ✅ Validate stock before adding to cart (stock not already held by other carts)
      */
     public void validateStockBeforeCartAdd(Long productId, int requestedQty) {
-        Product product = fetchProduct(productId);
-        if (requestedQty > product.getStock()) {
-            throw new CustomException("Requested quantity exceeds available stock", "Available", product.getStock());
+        int available = stockReservationService.getAvailableToPromise(productId);
+        if (requestedQty > available) {
+            throw new CustomException("Requested quantity exceeds available stock", "Available", available);
         }
     }
 
@@ -96,21 +188,39 @@ public class InventoryService {
     }
 
     /**
-     * ✅ Fetch product safely
+     * ✅ Aggregate order lines per product, sorted by product id (lock ordering)
      */
-    private Product fetchProduct(Long productId) {
-        return productRepository.findById(productId)
-            .orElseThrow(() -> new CustomException("Product not found", "with ID", productId));
+    private SortedMap<Long, Integer> quantitiesByProduct(Order order) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
     }
 
     /**
      * ✅ Log low stock warning
      */
-    private void checkLowStock(Product product) {
-        if (product.getStock() < LOW_STOCK_THRESHOLD) {
-            log.warn("⚠️ Low stock alert for '{}': only {} left", product.getName(), product.getStock());
+    private void checkLowStock(Long productId, int stock) {
+        if (stock < LOW_STOCK_THRESHOLD) {
+            shopMetrics.increment(ShopMetrics.STOCK_LOW_ALERTS);
+            log.warn("⚠️ Low stock alert for product {}: only {} left", productId, stock);
         }
     }
+
+    private void reservationFailed(String path, String reason) {
+        shopMetrics.increment(ShopMetrics.STOCK_RESERVATION_FAILURES, "path", path, "reason", reason);
+    }
+
+    /**
+     * 📊 Refresh the low-stock product gauge (one COUNT per interval, not per scrape)
+     */
+    @Scheduled(fixedDelayString = "${metrics.low-stock.refresh-ms:60000}")
+    public void refreshLowStockGauge() {
+        AtomicLong lowStock = shopMetrics.gauge(ShopMetrics.STOCK_LOW_PRODUCTS,
+                "Products with stock below " + LOW_STOCK_THRESHOLD);
+        lowStock.set(productRepository.countByStockLessThan(LOW_STOCK_THRESHOLD));
+    }
     
     @Transactional
     public void initializeInventory(Product product, int quantity) {
@@ -125,6 +235,9 @@ public class InventoryService {
      */
     @Transactional
     public void unlinkProductFromInventory(Product product) {
+        if (stockShardService.isSharded(product.getId())) {
+            stockShardService.disableSharding(product.getId()); // slots reference the product row
+        }
         Inventory inventory = inventoryRepository.findByProduct(product);
         if (inventory != null) {
             inventory.setProduct(null);
@@ -134,4 +247,25 @@ public class InventoryService {
             log.info("ℹ️ No inventory record found for product '{}'", product.getName());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * ✅ Opt a product into sharded stock counters (flash sales)
+     */
+    public void enableSharding(Long productId, int slots) {
+        stockShardService.enableSharding(productId, slots);
+    }
+
+    /**
+     * ✅ Fold sharded counters back into the single inventory row
+     */
+    public void disableSharding(Long productId) {
+        stockShardService.disableSharding(productId);
+    }
+
+    /**
+     * ✅ Inventory availability across the single row and all counter slots
+     */
+    public int getAvailableQuantity(Long productId) {
+        return stockShardService.getAvailableQuantity(productId);
+    }
+}
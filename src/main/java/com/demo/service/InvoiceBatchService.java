@@ -0,0 +1,290 @@
+package com.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.BatchCheckpoint;
+import com.demo.entity.Order;
+import com.demo.repository.BatchCheckpointRepository;
+import com.demo.repository.InvoiceRepository;
+import com.demo.repository.OrderRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Month-end backlog job: creates invoices (rows and PDFs) for every order that has none.
+ * A coordinator thread walks order ids in chunks; each chunk is split into commit-sized
+ * slices rendered in parallel on a bounded worker pool, each slice in its own transaction.
+ * The checkpoint advances once a whole chunk is done, so a stopped or crashed run resumes there;
+ * it never passes an order that failed, so a resumed run retries it.
+ */
+@Service
+public class InvoiceBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceBatchService.class);
+    static final String JOB_NAME = "invoice-backlog";
+
+    public enum State { IDLE, RUNNING, STOPPING, STOPPED, COMPLETED, FAILED }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${invoice.batch.workers:4}")
+    private int workers;
+
+    @Value("${invoice.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${invoice.batch.commit-size:50}")
+    private int commitSize;
+
+    private volatile State state = State.IDLE;
+    private volatile boolean stopRequested;
+    private volatile Thread coordinator;
+    private ThreadPoolExecutor executor;
+
+    // ===== Progress =====
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startNanos;
+    private volatile long finishedNanos;
+    private volatile long generatedAtCheckpoint;
+    private volatile long resumedFromId;
+    private volatile long checkpointId;
+    private volatile long pendingAtStart;
+    private volatile String lastError;
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAccumulator lowestFailedId = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    /**
+     * ✅ Start the job in the background; with resume it continues after the stored checkpoint.
+     */
+    public synchronized Map<String, Object> start(boolean resume) {
+        if (state == State.RUNNING || state == State.STOPPING) {
+            throw new IllegalStateException("Invoice batch job is already running");
+        }
+        long afterId = resume
+                ? checkpointRepository.findById(JOB_NAME).map(BatchCheckpoint::getLastId).orElse(0L)
+                : 0L;
+
+        generated.reset();
+        skipped.reset();
+        failed.reset();
+        lowestFailedId.reset();
+        lastError = null;
+        stopRequested = false;
+        resumedFromId = afterId;
+        checkpointId = afterId;
+        pendingAtStart = orderRepository.countWithoutInvoice(afterId);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        finishedNanos = 0;
+        generatedAtCheckpoint = 0;
+        startNanos = System.nanoTime();
+        state = State.RUNNING;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        int slicesPerChunk = (chunkSize + commitSize - 1) / commitSize;
+        // Coordinator never queues more than one chunk; CallerRuns is only a safety net
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(slicesPerChunk),
+                r -> {
+                    Thread t = new Thread(r, "invoice-batch-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        coordinator = new Thread(() -> run(afterId), "invoice-batch-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        log.info("Invoice batch job started after order ID {} ({} orders pending, {} workers)",
+                afterId, pendingAtStart, workers);
+        return getStatus();
+    }
+
+    /**
+     * ✅ Ask the job to stop after the chunk in flight; the checkpoint is kept for resume.
+     */
+    public Map<String, Object> stop() {
+        if (state == State.RUNNING) {
+            stopRequested = true;
+            state = State.STOPPING;
+        }
+        return getStatus();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        stopRequested = true;
+        Thread running = coordinator;
+        if (running != null) {
+            running.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void run(long afterId) {
+        long lastId = afterId;
+        try {
+            boolean drained = false;
+            while (!stopRequested) {
+                List<Long> ids = orderRepository.findIdsWithoutInvoice(lastId, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    drained = true;
+                    break;
+                }
+
+                List<Future<?>> slices = new ArrayList<>();
+                for (int from = 0; from < ids.size(); from += commitSize) {
+                    List<Long> slice = ids.subList(from, Math.min(from + commitSize, ids.size()));
+                    slices.add(executor.submit(() -> processSlice(slice)));
+                }
+                for (Future<?> slice : slices) {
+                    slice.get();
+                }
+
+                lastId = ids.get(ids.size() - 1);
+                saveCheckpoint(lastId);
+            }
+            // A stop that lands during the final chunk still finished the backlog
+            if (!drained) {
+                drained = orderRepository.findIdsWithoutInvoice(lastId, Limit.of(1)).isEmpty();
+            }
+            state = drained ? State.COMPLETED : State.STOPPED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.STOPPED;
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            lastError = cause.getMessage();
+            state = State.FAILED;
+            log.error("Invoice batch job failed after order ID {}", lastId, cause);
+        } finally {
+            executor.shutdown();
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            log.info("Invoice batch job {}: {} generated, {} skipped, {} failed, checkpoint {}",
+                    state, generated.sum(), skipped.sum(), failed.sum(), checkpointId);
+        }
+    }
+
+    /**
+     * One commit: load the slice's orders with user and items, then build, render and insert invoices.
+     * If the slice fails (e.g. an invoice was created on demand meanwhile) it is retried order by order.
+     */
+    private void processSlice(List<Long> orderIds) {
+        try {
+            Integer created = transactionTemplate.execute(tx -> {
+                List<Order> orders = orderRepository.findWithUserAndItemsByIdIn(orderIds);
+                for (Order order : orders) {
+                    invoiceService.storePdf(invoiceService.buildInvoice(order), order);
+                }
+                return orders.size();
+            });
+            generated.add(created);
+        } catch (RuntimeException e) {
+            log.warn("Invoice slice of {} orders failed ({}); retrying one by one", orderIds.size(), e.getMessage());
+            for (Long orderId : orderIds) {
+                processOne(orderId);
+            }
+        }
+    }
+
+    private void processOne(Long orderId) {
+        try {
+            boolean created = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+                List<Order> orders = orderRepository.findWithUserAndItemsByIdIn(List.of(orderId));
+                if (orders.isEmpty() || invoiceRepository.findByOrder(orders.get(0)).isPresent()) {
+                    return false;
+                }
+                invoiceService.storePdf(invoiceService.buildInvoice(orders.get(0)), orders.get(0));
+                return true;
+            }));
+            (created ? generated : skipped).increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            lowestFailedId.accumulate(orderId);
+            lastError = "Order " + orderId + ": " + e.getMessage();
+            log.warn("Invoice generation failed for order ID {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    // The scan moves on past failed orders, but the stored checkpoint stays below the lowest one
+    private void saveCheckpoint(long scannedId) {
+        long lastId = Math.min(scannedId, lowestFailedId.get() - 1);
+        long generatedNow = generated.sum();
+        long delta = generatedNow - generatedAtCheckpoint;
+        transactionTemplate.executeWithoutResult(tx -> {
+            BatchCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> new BatchCheckpoint(JOB_NAME, lastId, 0));
+            checkpoint.setLastId(lastId);
+            checkpoint.setProcessed(checkpoint.getProcessed() + delta);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+        generatedAtCheckpoint = generatedNow;
+        checkpointId = lastId;
+    }
+
+    /**
+     * ✅ State, counters, throughput and ETA of the current (or last) run.
+     */
+    public Map<String, Object> getStatus() {
+        long done = generated.sum() + skipped.sum() + failed.sum();
+        long end = finishedAt != null && finishedNanos > 0 ? finishedNanos : System.nanoTime();
+        double elapsedSeconds = startedAt == null ? 0.0 : (end - startNanos) / 1_000_000_000.0;
+        double perSecond = elapsedSeconds > 0 ? done / elapsedSeconds : 0.0;
+        long remaining = Math.max(0, pendingAtStart - done);
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("resumedFromOrderId", resumedFromId);
+        status.put("checkpointOrderId", checkpointId);
+        status.put("pendingAtStart", pendingAtStart);
+        status.put("generated", generated.sum());
+        status.put("skipped", skipped.sum());
+        status.put("failed", failed.sum());
+        status.put("remaining", remaining);
+        status.put("elapsedSeconds", elapsedSeconds);
+        status.put("ordersPerSecond", perSecond);
+        status.put("etaSeconds", state == State.RUNNING && perSecond > 0 ? remaining / perSecond : null);
+        status.put("activeWorkers", executor == null ? 0 : executor.getActiveCount());
+        status.put("lastError", lastError);
+        return status;
+    }
+}
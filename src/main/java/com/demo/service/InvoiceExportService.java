@@ -0,0 +1,185 @@
+package com.demo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.dto.StoredInvoicePdf;
+import com.demo.entity.Invoice;
+import com.demo.entity.InvoiceStatus;
+import com.demo.exception.CustomException;
+import com.demo.invoice.InvoiceDocument;
+import com.demo.repository.InvoiceRepository;
+import com.demo.repository.InvoiceSpecifications;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Streams a ZIP of invoice PDFs for a user and/or date range straight to the caller's stream.
+ * Invoices are walked in keyset pages (ids only, then one fetch query), each page in its own
+ * short read-only transaction that only builds the pages' documents: missing PDFs are rendered
+ * after it ended, so no pooled connection is held while rendering or streaming. Each PDF is
+ * streamed from the store entry by entry: at most one page of documents is held at a time,
+ * whatever the number of matches.
+ */
+@Service
+public class InvoiceExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceExportService.class);
+
+    public record Filter(Long userId, InvoiceStatus status, LocalDate from, LocalDate to) {}
+
+    private record Entry(Long invoiceId, Long orderId, String name, InvoiceDocument document, String recordedPath) {}
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${invoice.export.page-size:200}")
+    private int pageSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ✅ Reject unbounded or inverted exports before any bytes are written
+    public void validate(Filter filter) {
+        if (filter.userId() == null && filter.from() == null && filter.to() == null) {
+            throw new CustomException("Export needs a userId or a date range", "invoice", 0);
+        }
+        if (filter.from() != null && filter.to() != null && filter.to().isBefore(filter.from())) {
+            throw new CustomException("Export 'to' date is before 'from'", "invoice", 0);
+        }
+    }
+
+    /**
+     * ✅ Write the ZIP; PDFs missing from the store are rendered on the way (outside any transaction)
+     * and recorded on invoices that did not record them yet. Returns the entry count.
+     */
+    public int export(Filter filter, OutputStream out) throws IOException {
+        validate(filter);
+        Specification<Invoice> base = InvoiceSpecifications.forUser(filter.userId())
+                .and(InvoiceSpecifications.hasStatus(filter.status()))
+                .and(InvoiceSpecifications.generatedBetween(
+                        filter.from() == null ? null : filter.from().atStartOfDay(),
+                        filter.to() == null ? null : filter.to().plusDays(1).atStartOfDay()));
+
+        long startedAt = System.nanoTime();
+        int count = 0;
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setLevel(Deflater.BEST_SPEED); // PDF streams are already compressed
+        Long lastId = null;
+
+        while (true) {
+            Long after = lastId;
+            List<Entry> page = readOnlyTransaction.execute(tx -> loadPage(base.and(InvoiceSpecifications.idAfter(after))));
+            if (page.isEmpty()) {
+                break;
+            }
+            Map<Long, String> unrecorded = new LinkedHashMap<>();
+            for (Entry entry : page) {
+                try (InputStream pdf = open(entry, unrecorded)) {
+                    zip.putNextEntry(new ZipEntry(entry.name())); // invoice numbers are unique
+                    pdf.transferTo(zip);
+                    zip.closeEntry();
+                }
+                count++;
+            }
+            if (!unrecorded.isEmpty()) {
+                invoiceService.recordPdfPaths(unrecorded);
+            }
+            zip.flush();
+            lastId = page.get(page.size() - 1).invoiceId();
+        }
+        zip.finish();
+        zip.flush();
+
+        log.info("Exported {} invoices ({}) in {} ms", count, filter, (System.nanoTime() - startedAt) / 1_000_000);
+        return count;
+    }
+
+    /**
+     * One keyset page: ids via the filter (no entities), then invoices with user, order and items
+     * in one query, turned into detached documents. Writes no rows and renders nothing.
+     */
+    private List<Entry> loadPage(Specification<Invoice> spec) {
+        List<Long> ids = findIds(spec);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> entries = new ArrayList<>(ids.size());
+        for (Invoice invoice : invoiceRepository.findForRenderingByIdIn(ids)) {
+            entries.add(new Entry(invoice.getId(), invoice.getOrder().getId(), invoice.getInvoiceNumber() + ".pdf",
+                    InvoiceDocument.of(invoice, invoice.getOrder()), invoice.getFilePath()));
+        }
+        entityManager.clear();
+        return entries;
+    }
+
+    // 🔍 Next page of matching invoice ids in id order, selected as ids only
+    private List<Long> findIds(Specification<Invoice> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Invoice> root = query.from(Invoice.class);
+        Predicate filter = spec.toPredicate(root, query, cb);
+        query.select(root.get("id")).orderBy(cb.asc(root.get("id")));
+        if (filter != null) {
+            query.where(filter);
+        }
+        return entityManager.createQuery(query).setMaxResults(pageSize).getResultList();
+    }
+
+    // Open the entry's PDF, rendering it into the store first if missing; a rendering the invoice
+    // does not record yet is collected for recording. A file swept between rendering and opening
+    // is rendered again; once open, the file can be deleted without affecting the copy.
+    private InputStream open(Entry entry, Map<Long, String> unrecorded) throws IOException {
+        StoredInvoicePdf pdf = invoiceService.renderPdf(entry.orderId(), entry.document(), entry.recordedPath());
+        String path = InvoicePdfStore.relativePath(pdf.digest());
+        if (!path.equals(entry.recordedPath())) {
+            unrecorded.put(entry.invoiceId(), path);
+        }
+        try {
+            return Files.newInputStream(pdf.path());
+        } catch (NoSuchFileException e) {
+            log.debug("Invoice PDF {} vanished during export; rendering again", pdf.path());
+            return Files.newInputStream(
+                    invoiceService.renderPdf(entry.orderId(), entry.document(), entry.recordedPath()).path());
+        }
+    }
+}
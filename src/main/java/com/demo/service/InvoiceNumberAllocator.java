@@ -0,0 +1,111 @@
+package com.demo.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.InvoiceNumberBlock;
+import com.demo.repository.InvoiceNumberBlockRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Hands out invoice numbers INV-yyyyMMdd-NNNNNN that increase monotonically per day on each node.
+ * Numbers come from blocks reserved with one UPDATE on invoice_number_blocks, so the shared
+ * row is touched once per block instead of once per invoice. Unused numbers of a block
+ * (restart, other nodes) leave gaps, which is acceptable for invoice numbering here.
+ * A reservation runs in its own transaction while the caller's keeps its connection, and only one
+ * thread per node reserves at a time: the pool needs one connection beyond the transactions that
+ * can be open at once (see spring.datasource.hikari.maximum-pool-size).
+ */
+@Service
+public class InvoiceNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private record Block(AtomicLong next, long limit) {}
+
+    @Autowired
+    private InvoiceNumberBlockRepository blockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${invoice.number.block-size:1000}")
+    private long blockSize;
+
+    private TransactionTemplate reserveTransaction;
+    private final Map<LocalDate, Block> blocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        // Reservations commit on their own, even when called inside a rolled-back transaction
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ✅ Next invoice number for today
+    public String next() {
+        return next(LocalDate.now());
+    }
+
+    public String next(LocalDate day) {
+        while (true) {
+            Block block = blocks.get(day);
+            if (block != null) {
+                long value = block.next().getAndIncrement();
+                if (value < block.limit()) {
+                    return format(day, value);
+                }
+            }
+            refill(day, block);
+        }
+    }
+
+    private synchronized void refill(LocalDate day, Block exhausted) {
+        if (blocks.get(day) != exhausted) {
+            return; // another thread already refilled
+        }
+        long start = reserve(day);
+        blocks.put(day, new Block(new AtomicLong(start), start + blockSize));
+        blocks.keySet().removeIf(d -> d.isBefore(day.minusDays(1)));
+        log.debug("Reserved invoice numbers {}..{} for {}", start, start + blockSize - 1, day);
+    }
+
+    private long reserve(LocalDate day) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return reserveTransaction.execute(tx -> {
+                    if (blockRepository.advance(day, blockSize) == 1) {
+                        return blockRepository.findNextValue(day).orElseThrow() - blockSize;
+                    }
+                    // First block of the day: numbering starts at 1
+                    blockRepository.saveAndFlush(new InvoiceNumberBlock(day, 1 + blockSize));
+                    return 1L;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another node opened the day first; take the next block from its row
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static String format(LocalDate day, long value) {
+        return String.format("INV-%s-%06d", day.format(DateTimeFormatter.BASIC_ISO_DATE), value);
+    }
+}
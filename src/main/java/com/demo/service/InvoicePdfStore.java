@@ -0,0 +1,150 @@
+package com.demo.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed on-disk store for rendered invoice PDFs.
+ * A file is named after the SHA-256 of everything that went into rendering it,
+ * so an unchanged invoice always maps to the same file and a changed one to a new file.
+ */
+@Service
+public class InvoicePdfStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePdfStore.class);
+
+    @Value("${invoice.pdf.dir:data/invoices}")
+    private String directory;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Path.of(directory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        logger.info("Invoice PDF store at {}", root);
+    }
+
+    // ✅ SHA-256 (hex) of the canonical render input
+    public static String digest(String canonicalContent) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(canonicalContent.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ✅ Relative path recorded in Invoice.filePath (fanned out by the first two hex chars)
+    public static String relativePath(String digest) {
+        return digest.substring(0, 2) + "/" + digest + ".pdf";
+    }
+
+    public Path resolve(String relativePath) {
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invoice file path escapes the store: " + relativePath);
+        }
+        return path;
+    }
+
+    public boolean exists(String relativePath) {
+        return relativePath != null && Files.isRegularFile(resolve(relativePath));
+    }
+
+    /**
+     * ✅ Write via a temp file and atomic rename, so readers never see a partial PDF.
+     * Concurrent writers of the same digest produce identical bytes; the last rename wins harmlessly.
+     */
+    public void store(String relativePath, byte[] pdf) {
+        Path target = resolve(relativePath);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), "invoice-", ".tmp");
+            try {
+                Files.write(temp, pdf);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store invoice PDF " + relativePath, e);
+        }
+    }
+
+    /**
+     * ✅ Mark a stored PDF as just used: its mtime is the last-access clock the sweep goes by
+     */
+    public void touch(String relativePath) {
+        try {
+            Files.setLastModifiedTime(resolve(relativePath), FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            logger.warn("Could not touch invoice PDF {}: {}", relativePath, e.getMessage());
+        }
+    }
+
+    /**
+     * ✅ Relative paths of stored PDFs (and abandoned temp files) last modified before the cutoff
+     */
+    public List<String> listUntouchedSince(Instant cutoff) {
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> lastModified(file).isBefore(cutoff))
+                    .map(file -> root.relativize(file).toString().replace('\\', '/'))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list invoice PDF store " + root, e);
+        }
+    }
+
+    /**
+     * ✅ Delete unless the file was touched since the cutoff (re-checked right before deleting,
+     * so a download that resolved it after the listing keeps it)
+     */
+    public boolean deleteIfUntouchedSince(String relativePath, Instant cutoff) {
+        if (!lastModified(resolve(relativePath)).isBefore(cutoff)) {
+            return false;
+        }
+        delete(relativePath);
+        return true;
+    }
+
+    public void delete(String relativePath) {
+        try {
+            Files.deleteIfExists(resolve(relativePath));
+        } catch (IOException e) {
+            logger.warn("Could not delete stale invoice PDF {}: {}", relativePath, e.getMessage());
+        }
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.MAX; // vanished or unreadable: leave it alone
+        }
+    }
+}
@@ -1,29 +1,50 @@
 package com.demo.service;
 
+import com.demo.dto.InvoiceView;
+import com.demo.dto.StoredInvoicePdf;
 import com.demo.entity.*;
+import com.demo.invoice.InvoiceDocument;
+import com.demo.invoice.InvoiceRenderer;
+import com.demo.metrics.ShopMetrics;
 import com.demo.repository.InvoiceRepository;
+import com.demo.repository.OrderRepository;
 
-import org.apache.pdfbox.pdmodel.*;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class InvoiceService {
 
     private static final BigDecimal GST_RATE = BigDecimal.valueOf(0.18);
-    private static final BigDecimal FLAT_SHIPPING_FEE = BigDecimal.valueOf(50);
+    private static final BigDecimal FLAT_SHIPPING_FEE = BigDecimal.valueOf(50).setScale(2); // column scale: same digest before and after a reload
+    private static final int SWEEP_BATCH = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceService.class);
 
     @Autowired
     private InvoiceRepository invoiceRepository;
@@ -31,26 +52,83 @@ public class InvoiceService {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private InvoicePdfStore invoicePdfStore;
+
+    @Autowired
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Autowired
+    private InvoiceRenderer invoiceRenderer;
+
+    @Autowired
+    private ShopMetrics shopMetrics;
+
+    @Value("${invoice.pdf.sweep-grace-hours:24}")
+    private long sweepGraceHours;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> creating = new ConcurrentHashMap<>();
+
     /**
      * ✅ Return existing invoice or generate a new one.
+     * Concurrent calls for one order resolve to a single invoice: callers on this node wait for
+     * the first one, and a race with another node is settled by the unique order_id constraint.
      */
     public Invoice getOrCreateInvoice(Long orderId) {
-        Order order = orderService.getOrderById(orderId);
-        return invoiceRepository.findByOrder(order)
-                .orElseGet(() -> generateInvoiceForOrder(order));
+        Optional<Invoice> existing = invoiceRepository.findByOrderId(orderId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> inFlight = creating.putIfAbsent(orderId, mine);
+        if (inFlight != null) {
+            inFlight.join();
+            return invoiceRepository.findByOrderId(orderId)
+                    .orElseGet(() -> getOrCreateInvoice(orderId)); // first caller failed: try ourselves
+        }
+
+        try {
+            // With user and items: the new invoice records the path of its rendering up front
+            Order order = orderRepository.findWithUserAndItemsByIdIn(List.of(orderId)).stream().findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+            return invoiceRepository.findByOrderId(orderId)
+                    .orElseGet(() -> generateInvoiceForOrder(order));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race to another node; its invoice is now committed
+            return invoiceRepository.findByOrderId(orderId).orElseThrow(() -> e);
+        } finally {
+            creating.remove(orderId, mine);
+            mine.complete(null);
+        }
     }
 
     /**
-     * 🧾 Generate and persist invoice for given order.
+     * 🧾 Generate and persist invoice for given order (user and items loaded).
+     * The invoice records the path its PDF renders to, so the file a download later writes
+     * there is referenced from the start and never swept.
      */
     public Invoice generateInvoiceForOrder(Order order) {
+        Invoice invoice = buildInvoice(order);
+        invoice.setFilePath(pdfPath(invoice, order));
+        return invoiceRepository.saveAndFlush(invoice);
+    }
+
+    /**
+     * 🧾 New (unsaved) invoice for the given order.
+     */
+    public Invoice buildInvoice(Order order) {
         BigDecimal totalAmount = BigDecimal.valueOf(order.getTotalAmount()).setScale(2, RoundingMode.HALF_UP);
         BigDecimal taxAmount = calculateTax(totalAmount);
         BigDecimal shippingFee = calculateShipping();
 
+        LocalDateTime generatedAt = LocalDateTime.now();
         Invoice invoice = new Invoice();
-        invoice.setInvoiceNumber(generateInvoiceNumber(order.getId()));
-        invoice.setGeneratedAt(LocalDateTime.now());
+        invoice.setInvoiceNumber(invoiceNumberAllocator.next(generatedAt.toLocalDate()));
+        invoice.setGeneratedAt(generatedAt);
         invoice.setTotalAmount(totalAmount);
         invoice.setTaxAmount(taxAmount);
         invoice.setShippingFee(shippingFee);
@@ -60,72 +138,157 @@ public class InvoiceService {
         invoice.setStatus(InvoiceStatus.GENERATED);
         invoice.setOrder(order);
         invoice.setUser(order.getUser());
+        return invoice;
+    }
 
-        return invoiceRepository.save(invoice);
+    /**
+     * 📄 Return the invoice PDF, rendering it only when the invoice data changed.
+     * Rendered files are content-addressed by the digest of their input; serving one writes no rows.
+     */
+    @Transactional(readOnly = true)
+    public StoredInvoicePdf getInvoicePdf(Long orderId) {
+        shopMetrics.timeTransaction(ShopMetrics.INVOICE_PDF);
+        Invoice invoice = loadForRendering(orderId);
+        return renderPdf(invoice, invoice.getOrder());
     }
 
     /**
-     * 📄 Generate PDF for invoice.
+     * 🧾 Invoice response for an order (created on first request), with its lines
      */
-    public byte[] generateInvoicePdf(Long orderId) {
-        Order order = orderService.getOrderById(orderId);
-        Invoice invoice = invoiceRepository.findByOrder(order)
-                .orElseThrow(() -> new IllegalArgumentException("Invoice not found for order ID: " + orderId));
+    public InvoiceView getInvoiceView(Long orderId) {
+        getOrCreateInvoice(orderId);
+        return InvoiceView.from(loadForRendering(orderId));
+    }
+
+    // Render fetch plan: invoice, user, order and items in one query
+    private Invoice loadForRendering(Long orderId) {
+        return invoiceRepository.findForRenderingByOrderId(orderId).orElseThrow(() -> {
+            orderService.getOrderById(orderId); // "Order not found" takes precedence
+            return new IllegalArgumentException("Invoice not found for order ID: " + orderId);
+        });
+    }
 
-        try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
+    /**
+     * 📄 Render the invoice into the PDF store unless an up-to-date rendering is already there,
+     * and record its path (saving the invoice, which may still be new). A superseded rendering
+     * is left in place for downloads still streaming it; sweepUnreferencedPdfs removes it later.
+     */
+    @Transactional
+    public StoredInvoicePdf storePdf(Invoice invoice, Order order) {
+        StoredInvoicePdf pdf = renderPdf(invoice, order, true);
+        String path = InvoicePdfStore.relativePath(pdf.digest());
+        if (invoice.getId() == null || !path.equals(invoice.getFilePath())) {
+            invoice.setFilePath(path);
+            invoiceRepository.save(invoice);
+        }
+        return pdf;
+    }
 
-            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
-                content.beginText();
-                content.setFont(PDType1Font.HELVETICA_BOLD, 14);
-                content.setLeading(18f);
-                content.newLineAtOffset(50, 750);
+    /**
+     * 📄 Render the invoice into the PDF store unless an up-to-date rendering is already there.
+     * Touches no rows, so read-only callers (download) can use it.
+     */
+    public StoredInvoicePdf renderPdf(Invoice invoice, Order order) {
+        return renderPdf(invoice, order, false);
+    }
 
-                writeInvoiceHeader(content, invoice);
-                writeOrderItems(content, order);
-                writeInvoiceSummary(content, invoice);
+    /**
+     * 📄 Same for a document built earlier, so callers can end their transaction before rendering
+     * (export). {@code recordedPath} is the invoice's filePath; the result's path may differ from it.
+     */
+    public StoredInvoicePdf renderPdf(Long orderId, InvoiceDocument document, String recordedPath) {
+        return renderPdf(orderId, document, recordedPath, false);
+    }
 
-                content.endText();
-            }
+    /**
+     * 📄 Record the store paths of current renderings on their invoices (renderings made for
+     * invoices whose recorded path was missing or superseded, so the sweep keeps them).
+     */
+    @Transactional
+    public void recordPdfPaths(Map<Long, String> pathsByInvoiceId) {
+        pathsByInvoiceId.forEach(invoiceRepository::updateFilePath);
+    }
+
+    private StoredInvoicePdf renderPdf(Invoice invoice, Order order, boolean discardOnRollback) {
+        return renderPdf(order.getId(), InvoiceDocument.of(invoice, order), invoice.getFilePath(), discardOnRollback);
+    }
+
+    // With discardOnRollback, a file rendered here is deleted again if the surrounding transaction
+    // rolls back (e.g. a batch slice whose invoices are never committed), so it leaves no orphan
+    private StoredInvoicePdf renderPdf(Long orderId, InvoiceDocument document, String recordedPath,
+                                       boolean discardOnRollback) {
+        String digest = digest(document);
+        String path = InvoicePdfStore.relativePath(digest);
 
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            document.save(out);
-            return out.toByteArray();
+        if (!invoicePdfStore.exists(path)) {
+            byte[] pdf = shopMetrics.time(ShopMetrics.INVOICE_RENDER, () -> invoiceRenderer.render(document),
+                    "renderer", invoiceRenderer.id());
+            invoicePdfStore.store(path, pdf);
+            log.info("Rendered invoice PDF for order ID {} -> {}", orderId, path);
+            if (discardOnRollback && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK) {
+                            invoicePdfStore.delete(path);
+                        }
+                    }
+                });
+            }
+        } else if (!discardOnRollback && !path.equals(recordedPath)) {
+            invoicePdfStore.touch(path); // unreferenced rendering: kept while it is being served
+        }
 
+        Path file = invoicePdfStore.resolve(path);
+        try {
+            return new StoredInvoicePdf(orderId, file, digest, Files.size(file));
         } catch (IOException e) {
-            throw new RuntimeException("Failed to generate invoice PDF", e);
+            throw new UncheckedIOException("Failed to read invoice PDF " + path, e);
         }
     }
 
-    private void writeInvoiceHeader(PDPageContentStream content, Invoice invoice) throws IOException {
-        content.showText("Invoice #: " + invoice.getInvoiceNumber()); content.newLine();
-        content.showText("Date: " + invoice.getGeneratedAt().toLocalDate()); content.newLine();
-        content.showText("Customer: " + invoice.getUser().getName()); content.newLine();
-        content.showText("Billing Address: " + invoice.getBillingAddress()); content.newLine();
-        content.showText("Shipping Address: " + invoice.getShippingAddress()); content.newLine();
-        content.showText("Payment Method: " + invoice.getPaymentMethod()); content.newLine();
-        content.newLine();
-        content.showText("Items:"); content.newLine();
+    // Store path of the invoice's rendering with the current renderer
+    private String pdfPath(Invoice invoice, Order order) {
+        return InvoicePdfStore.relativePath(digest(InvoiceDocument.of(invoice, order)));
     }
 
-    private void writeOrderItems(PDPageContentStream content, Order order) throws IOException {
-        for (OrderItem item : order.getOrderItems()) {
-            String line = item.getProduct().getName() + " x" + item.getQuantity() + " - Rs." + item.getPrice();
-            content.showText(line); content.newLine();
-        }
-        content.newLine();
+    private String digest(InvoiceDocument document) {
+        return InvoicePdfStore.digest(invoiceRenderer.id() + "|" + document.canonicalForm());
     }
 
-    private void writeInvoiceSummary(PDPageContentStream content, Invoice invoice) throws IOException {
-        content.showText("Tax: Rs." + invoice.getTaxAmount()); content.newLine();
-        content.showText("Shipping: Rs." + invoice.getShippingFee()); content.newLine();
-        content.showText("Total: Rs." + invoice.getTotalAmount()); content.newLine();
+    /**
+     * 🧹 Delete stored PDFs no invoice records any more (superseded renderings, e.g. after a renderer switch).
+     * Serving an unreferenced file touches it, so only files nobody fetched for the grace period go;
+     * a rendering that is needed again is simply re-rendered on the next request.
+     */
+    @Scheduled(fixedDelayString = "${invoice.pdf.sweep-interval-ms:3600000}")
+    public void sweepUnreferencedPdfs() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(sweepGraceHours));
+        List<String> candidates = invoicePdfStore.listUntouchedSince(cutoff);
+        int deleted = 0;
+        for (int from = 0; from < candidates.size(); from += SWEEP_BATCH) {
+            List<String> batch = candidates.subList(from, Math.min(from + SWEEP_BATCH, candidates.size()));
+            Set<String> referenced = new HashSet<>(invoiceRepository.findFilePathsIn(batch));
+            for (String path : batch) {
+                if (!referenced.contains(path) && invoicePdfStore.deleteIfUntouchedSince(path, cutoff)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            log.info("🧹 Deleted {} unreferenced invoice PDFs", deleted);
+        }
     }
 
-    private String generateInvoiceNumber(Long orderId) {
-        String datePart = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
-        return "INV-" + datePart + "-" + orderId;
+    /**
+     * 📄 Invoice PDF bytes (served from the store; rendered on first use).
+     */
+    public byte[] generateInvoicePdf(Long orderId) {
+        try {
+            return Files.readAllBytes(getInvoicePdf(orderId).path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read invoice PDF for order ID " + orderId, e);
+        }
     }
 
     private BigDecimal calculateTax(BigDecimal totalAmount) {
@@ -0,0 +1,405 @@
+package com.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.OutboundMail;
+import com.demo.exception.MailQueueFullException;
+import com.demo.repository.OutboundMailRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Outbound mail: messages are queued in the mail_queue table (soft-bounded by mail.dispatch.queue-capacity)
+ * and sent off the request path by a small worker pool. Each worker claims a batch of due rows and
+ * sends it over a single SMTP connection; failed messages are retried with exponential backoff
+ * until mail.dispatch.max-attempts is reached. Delivery is at least once.
+ */
+@Service
+public class MailDispatcher implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OutboundMailRepository outboundMailRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${mail.dispatch.workers:2}")
+    private int workers;
+
+    @Value("${mail.dispatch.queue-capacity:10000}")
+    private long queueCapacity;
+
+    @Value("${mail.dispatch.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.dispatch.backoff-initial-ms:2000}")
+    private long backoffInitialMs;
+
+    @Value("${mail.dispatch.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${mail.dispatch.send-lease-seconds:120}")
+    private long sendLeaseSeconds;
+
+    @Value("${mail.dispatch.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${mail.dispatch.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${mail.dispatch.from:}")
+    private String from;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+    private final Semaphore wakeups = new Semaphore(0);
+
+    // PENDING rows as of the last refresh plus what this node queued since; checked by enqueue
+    // instead of a COUNT(*) per message
+    private final AtomicLong pendingEstimate = new AtomicLong();
+
+    // ===== Metrics =====
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder sendBatches = new LongAdder();
+    private final LongAdder messagesAttempted = new LongAdder();
+    private final LongAdder totalSendNanos = new LongAdder();
+    private final AtomicLong maxBatchSendNanos = new AtomicLong();
+    private final LongAdder totalDeliveryMillis = new LongAdder();
+    private final AtomicLong maxDeliveryMillis = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "mail-worker-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::workLoop);
+        }
+        log.info("Mail dispatcher started ({} workers, capacity {}, batch {})", workers, queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wakeups.release(workers);
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Mail workers did not stop within 30s; claimed messages are retried after their lease");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * ✅ Queue a plain-text message as part of the caller's transaction; workers are woken after commit.
+     * Throws MailQueueFullException when the queue is full. The capacity is a soft bound checked against
+     * a depth estimate refreshed every poll interval, so other nodes can overshoot it by what they queue
+     * within one interval, which is fine for back-pressure.
+     */
+    @Transactional
+    public OutboundMail enqueue(String recipient, String subject, String body) {
+        if (pendingEstimate.get() >= queueCapacity) {
+            rejected.increment();
+            log.warn("Mail queue full, rejecting message to {}", recipient);
+            throw new MailQueueFullException("Mail queue is full");
+        }
+        OutboundMail mail = outboundMailRepository.save(new OutboundMail(recipient, subject, body));
+        enqueued.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingEstimate.incrementAndGet();
+                    wake();
+                }
+            });
+        } else {
+            pendingEstimate.incrementAndGet();
+            wake();
+        }
+        return mail;
+    }
+
+    /**
+     * 📊 Re-read the queue depth (one COUNT per poll interval per node, off the request path)
+     */
+    @Scheduled(fixedDelayString = "${mail.dispatch.poll-interval-ms:1000}")
+    public void refreshQueueDepth() {
+        pendingEstimate.set(outboundMailRepository.countByStatus(OutboundMail.Status.PENDING));
+    }
+
+    /**
+     * ✅ Purge sent and failed rows past the retention window, in batches
+     */
+    @Scheduled(fixedDelayString = "${mail.dispatch.cleanup-interval-ms:3600000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = outboundMailRepository.findFinishedBefore(cutoff, PageRequest.of(0, 500));
+            if (!ids.isEmpty()) {
+                List<Long> batch = ids;
+                transactionTemplate.executeWithoutResult(status -> outboundMailRepository.deleteAllByIdInBatch(batch));
+                purged += batch.size();
+            }
+        } while (ids.size() == 500);
+        if (purged > 0) {
+            log.info("🧹 Purged {} finished mail queue rows", purged);
+        }
+    }
+
+    /**
+     * ✅ Queue depth, outcome counters and SMTP send / end-to-end delivery latency.
+     */
+    public Map<String, Object> getStats() {
+        long attempted = messagesAttempted.sum();
+        long delivered = sent.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", outboundMailRepository.countByStatus(OutboundMail.Status.PENDING));
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("workers", workers);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("sent", delivered);
+        stats.put("retried", retried.sum());
+        stats.put("failed", failed.sum());
+        stats.put("sendBatches", sendBatches.sum());
+        stats.put("avgSendMs", attempted == 0 ? 0.0 : totalSendNanos.sum() / 1_000_000.0 / attempted);
+        stats.put("maxBatchSendMs", maxBatchSendNanos.get() / 1_000_000.0);
+        stats.put("avgDeliveryMs", delivered == 0 ? 0.0 : (double) totalDeliveryMillis.sum() / delivered);
+        stats.put("maxDeliveryMs", maxDeliveryMillis.get());
+        return stats;
+    }
+
+    // 📊 shop_mail_messages_total{result}, shop_mail_send_seconds (per message), shop_mail_delivery_seconds (enqueue to sent)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCount(registry, "enqueued", enqueued);
+        bindCount(registry, "rejected", rejected);
+        bindCount(registry, "sent", sent);
+        bindCount(registry, "retried", retried);
+        bindCount(registry, "failed", failed);
+        FunctionTimer.builder("shop.mail.send", this, d -> d.messagesAttempted.sum(), d -> d.totalSendNanos.sum(),
+                TimeUnit.NANOSECONDS).register(registry);
+        FunctionTimer.builder("shop.mail.delivery", this, d -> d.sent.sum(), d -> d.totalDeliveryMillis.sum(),
+                TimeUnit.MILLISECONDS).register(registry);
+    }
+
+    private static void bindCount(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("shop.mail.messages", count, LongAdder::sum).tag("result", result).register(registry);
+    }
+
+    private void wake() {
+        if (wakeups.availablePermits() < workers) {
+            wakeups.release();
+        }
+    }
+
+    // Send full batches back to back; otherwise sleep until woken by an enqueue or the poll interval
+    private void workLoop() {
+        while (running) {
+            int dispatched;
+            try {
+                dispatched = dispatchBatch();
+            } catch (RuntimeException e) {
+                log.warn("Mail dispatch failed", e);
+                dispatched = 0;
+            }
+            if (dispatched < batchSize) {
+                try {
+                    wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OutboundMail> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboundMail> due = outboundMailRepository.lockDue(now, PageRequest.of(0, batchSize));
+            if (!due.isEmpty()) {
+                outboundMailRepository.claim(due.stream().map(OutboundMail::getId).toList(),
+                        now.plusSeconds(sendLeaseSeconds));
+            }
+            return due;
+        });
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<MimeMessage, OutboundMail> byMessage = new IdentityHashMap<>();
+        Map<OutboundMail, Exception> failures = new IdentityHashMap<>();
+        Map<OutboundMail, Exception> rejectedLocally = new IdentityHashMap<>();
+        for (OutboundMail mail : batch) {
+            try {
+                byMessage.put(toMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                rejectedLocally.put(mail, e); // malformed address etc.; retrying will not help
+            }
+        }
+
+        if (!byMessage.isEmpty()) {
+            long started = System.nanoTime();
+            try {
+                mailSender.send(byMessage.keySet().toArray(new MimeMessage[0])); // one SMTP connection per batch
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    byMessage.values().forEach(mail -> failures.put(mail, e));
+                } else {
+                    e.getFailedMessages().forEach((message, cause) -> {
+                        OutboundMail mail = byMessage.get(message);
+                        if (mail != null) {
+                            failures.put(mail, cause);
+                        }
+                    });
+                }
+            } catch (MailException e) {
+                byMessage.values().forEach(mail -> failures.put(mail, e));
+            }
+            long elapsed = System.nanoTime() - started;
+            sendBatches.increment();
+            messagesAttempted.add(byMessage.size());
+            totalSendNanos.add(elapsed);
+            maxBatchSendNanos.accumulateAndGet(elapsed, Math::max);
+        }
+
+        recordOutcome(batch, failures, rejectedLocally);
+        return batch.size();
+    }
+
+    private void recordOutcome(List<OutboundMail> batch, Map<OutboundMail, Exception> failures,
+                               Map<OutboundMail, Exception> rejectedLocally) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundMail> delivered = new ArrayList<>(batch.size());
+        for (OutboundMail mail : batch) {
+            if (!failures.containsKey(mail) && !rejectedLocally.containsKey(mail)) {
+                delivered.add(mail);
+            }
+        }
+        Map<OutboundMail, String> givenUp = new IdentityHashMap<>();
+        Map<OutboundMail, String> retrying = new IdentityHashMap<>();
+        rejectedLocally.forEach((mail, cause) -> givenUp.put(mail, describe(cause)));
+        failures.forEach((mail, cause) -> {
+            int attempt = mail.getAttempts() + 1; // the claim incremented the row, not this copy
+            (attempt >= maxAttempts ? givenUp : retrying).put(mail, describe(cause));
+        });
+
+        // Outcome rows move within the status/next_attempt_at index that claimers scan, so a
+        // deadlock with a concurrent claim is possible; the writes are idempotent, retry them
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!delivered.isEmpty()) {
+                        outboundMailRepository.markSent(delivered.stream().map(OutboundMail::getId).toList(), now);
+                    }
+                    givenUp.forEach((mail, error) -> outboundMailRepository.markFailed(mail.getId(), error));
+                    retrying.forEach((mail, error) -> outboundMailRepository.reschedule(mail.getId(),
+                            now.plusNanos(backoffMillis(mail.getAttempts() + 1) * 1_000_000), error));
+                });
+                break;
+            } catch (TransientDataAccessException e) {
+                if (attempt == 3) {
+                    throw e; // rows stay claimed and are picked up again once the lease expires
+                }
+            }
+        }
+
+        givenUp.forEach((mail, error) -> {
+            failed.increment();
+            log.warn("Giving up on mail {} to {} after {} attempt(s): {}", mail.getId(), mail.getRecipient(), mail.getAttempts() + 1, error);
+        });
+        retrying.forEach((mail, error) -> {
+            retried.increment();
+            log.info("Mail {} to {} failed (attempt {}), retrying: {}", mail.getId(), mail.getRecipient(), mail.getAttempts() + 1, error);
+        });
+        sent.add(delivered.size());
+        for (OutboundMail mail : delivered) {
+            long delivery = Duration.between(mail.getCreatedAt(), now).toMillis();
+            totalDeliveryMillis.add(delivery);
+            maxDeliveryMillis.accumulateAndGet(delivery, Math::max);
+        }
+    }
+
+    private MimeMessage toMimeMessage(OutboundMail mail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        if (!from.isBlank()) {
+            helper.setFrom(from);
+        }
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getBody());
+        return message;
+    }
+
+    // Exponential backoff with up to 20% jitter so a recovering SMTP server is not hit in lockstep
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempt - 1, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
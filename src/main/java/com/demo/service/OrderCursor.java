@@ -0,0 +1,72 @@
+package com.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.demo.entity.Order;
+import com.demo.exception.CustomException;
+
+/**
+ * Opaque continuation token for keyset order history.
+ * Encodes the status filter and the (createdAt, id) of the last order served.
+ */
+public final class OrderCursor {
+
+    private static final String VERSION = "v1";
+
+    private final String status;
+    private final LocalDateTime lastCreatedAt;
+    private final Long lastId;
+
+    private OrderCursor(String status, LocalDateTime lastCreatedAt, Long lastId) {
+        this.status = status;
+        this.lastCreatedAt = lastCreatedAt;
+        this.lastId = lastId;
+    }
+
+    // ✅ Build cursor pointing after the given order
+    public static OrderCursor after(Order last, String status) {
+        return new OrderCursor(normalize(status), last.getCreatedAt(), last.getId());
+    }
+
+    // ✅ Decode and check the token belongs to the requested filter
+    public static OrderCursor decode(String token, String status) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException("INVALID_CURSOR", "Malformed cursor", 0);
+        }
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new CustomException("INVALID_CURSOR", "Unsupported cursor", 0);
+        }
+        if (!parts[1].equals(normalize(status))) {
+            throw new CustomException("INVALID_CURSOR", "Cursor does not match requested status", 0);
+        }
+        try {
+            return new OrderCursor(parts[1], LocalDateTime.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new CustomException("INVALID_CURSOR", "Malformed cursor", 0);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, status, lastCreatedAt.toString(), String.valueOf(lastId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getLastCreatedAt() {
+        return lastCreatedAt;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    private static String normalize(String status) {
+        return status == null ? "" : status.trim();
+    }
+}
@@ -0,0 +1,187 @@
+package com.demo.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.demo.dto.OrderTicket;
+import com.demo.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous order placement: requests are validated, queued on a bounded in-process queue
+ * and placed by a small worker pool, while the client polls (or subscribes to) an OrderTicket.
+ */
+@Service
+public class OrderPlacementService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPlacementService.class);
+
+    private record TrackedTicket(OrderTicket ticket, CompletableFuture<OrderTicket> done) {}
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${order.async.workers:4}")
+    private int workers;
+
+    @Value("${order.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${order.async.ticket-ttl-minutes:60}")
+    private long ticketTtlMinutes;
+
+    private ThreadPoolExecutor executor;
+    private Cache<String, TrackedTicket> tickets;
+
+    // ===== Metrics =====
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "order-worker-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        tickets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ticketTtlMinutes))
+                .build();
+        log.info("Order placement queue started ({} workers, capacity {})", workers, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Order placement queue did not drain within 30s; {} requests dropped", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * ✅ Validate and enqueue an order; throws RejectedExecutionException when the queue is full.
+     */
+    public OrderTicket submit(Long userId, String paymentMethod) {
+        orderService.validateOrderRequest(userId, paymentMethod);
+
+        OrderTicket ticket = new OrderTicket(UUID.randomUUID().toString(), userId, paymentMethod);
+        TrackedTicket tracked = new TrackedTicket(ticket, new CompletableFuture<>());
+        tickets.put(ticket.getTicketId(), tracked);
+
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> process(tracked, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            tickets.invalidate(ticket.getTicketId());
+            log.warn("Order queue full, rejecting order for user {}", userId);
+            throw e;
+        }
+        submitted.increment();
+        return ticket;
+    }
+
+    public Optional<OrderTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId)).map(TrackedTicket::ticket);
+    }
+
+    /**
+     * ✅ Completes once the ticket reaches COMPLETED or FAILED.
+     */
+    public Optional<CompletableFuture<OrderTicket>> whenDone(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId)).map(TrackedTicket::done);
+    }
+
+    /**
+     * ✅ Queue depth, wait time and outcome counters.
+     */
+    public Map<String, Object> getStats() {
+        long samples = completed.sum() + failed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("avgWaitMs", samples == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / samples);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    // 📊 shop_order_async_queue_depth, shop_order_async_requests_total{result}, shop_order_async_wait_seconds
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shop.order.async.queue.depth", this, s -> s.executor == null ? 0 : s.executor.getQueue().size())
+                .register(registry);
+        bindCount(registry, "submitted", submitted);
+        bindCount(registry, "rejected", rejected);
+        bindCount(registry, "completed", completed);
+        bindCount(registry, "failed", failed);
+        FunctionTimer.builder("shop.order.async.wait", this, s -> s.completed.sum() + s.failed.sum(),
+                s -> s.totalWaitNanos.sum(), TimeUnit.NANOSECONDS).register(registry);
+    }
+
+    private static void bindCount(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("shop.order.async.requests", count, LongAdder::sum).tag("result", result).register(registry);
+    }
+
+    private void process(TrackedTicket tracked, long enqueuedAt) {
+        long wait = System.nanoTime() - enqueuedAt;
+        totalWaitNanos.add(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+        OrderTicket ticket = tracked.ticket();
+        ticket.markProcessing();
+        try {
+            Order order = orderService.placeOrder(ticket.getUserId(), ticket.getPaymentMethod());
+            ticket.markCompleted(order.getId());
+            completed.increment();
+            log.info("Async order {} placed for ticket {}", order.getId(), ticket.getTicketId());
+        } catch (RuntimeException e) {
+            String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            ticket.markFailed(reason);
+            failed.increment();
+            log.warn("Async order for ticket {} failed: {}", ticket.getTicketId(), reason);
+        } finally {
+            tracked.done().complete(ticket);
+        }
+    }
+}
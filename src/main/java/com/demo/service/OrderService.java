@@ -1,33 +1,58 @@
 package com.demo.service;
 
+import com.demo.dto.BulkStatusResult;
+import com.demo.dto.FieldSelection;
+import com.demo.dto.OrderHistoryPage;
+import com.demo.dto.OrderSummary;
 import com.demo.entity.Cart;
 import com.demo.entity.CartItem;
-import com.demo.entity.Inventory;
 import com.demo.entity.Order;
 import com.demo.entity.OrderItem;
 import com.demo.entity.Product;
 import com.demo.entity.User;
+import com.demo.exception.CustomException;
+import com.demo.exception.IdempotencyConflictException;
+import com.demo.metrics.ShopMetrics;
+import com.demo.repository.CartItemRepository;
 import com.demo.repository.CartRepository;
-import com.demo.repository.InventoryRepository;
+import com.demo.repository.IdempotencyKeyRepository;
 import com.demo.repository.OrderItemRepository;
 import com.demo.repository.OrderRepository;
+import com.demo.repository.OrderSpecifications;
 import com.demo.repository.UserRepository;
 
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BULK_ORDERS = 50_000;
+
+    @Value("${order.bulk.batch-size:1000}")
+    private int bulkBatchSize;
 
     @Autowired
     private UserRepository userRepository;
@@ -35,24 +60,79 @@ public class OrderService {
     @Autowired
     private CartRepository cartRepository;
 
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private InventoryRepository inventoryRepository;
+    private InventoryService inventoryService;
 
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShopMetrics shopMetrics;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // JDBC round trips of one session (statement executions plus batch executions)
+    private static final class StatementCount implements SessionEventListener {
+        private long count;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            count++;
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            count++;
+        }
+    }
+
+    /**
+     * ✅ Place an order and complete its idempotency claim in the same transaction.
+     * A claim taken over by another request (lease expired) rolls the order back.
+     */
+    @Transactional
+    public Order placeOrder(Long userId, String paymentMethod, String idempotencyKeyId, String claimToken) {
+        Order order = placeOrder(userId, paymentMethod);
+        if (idempotencyKeyRepository.markCompleted(idempotencyKeyId, claimToken, order.getId()) == 0) {
+            throw new IdempotencyConflictException("IDEMPOTENCY_CLAIM_LOST",
+                    "The claim on this Idempotency-Key expired and was taken over by another request.");
+        }
+        return order;
+    }
+
     /**
      * ✅ Place an order from a user's cart with dynamic input
      */
     @Transactional
     public Order placeOrder(Long userId, String paymentMethod) {
+        shopMetrics.timeTransaction(ShopMetrics.ORDER_PLACE);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        Cart cart = cartRepository.findByUserId(userId)
+        // Checkout fetch plan: cart and its items in one query (products come from the cache)
+        Cart cart = cartRepository.findWithItemsByUserId(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
 
         if (cart.getItems().isEmpty()) {
@@ -73,22 +153,15 @@ public class OrderService {
         List<OrderItem> orderItems = new ArrayList<>();
 
         for (CartItem cartItem : cart.getItems()) {
-            Product product = cartItem.getProduct();
+            // Snapshot name/price from the cache instead of initializing the lazy proxy
+            Long productId = cartItem.getProduct().getId();
+            Product product = productCache.get(productId)
+                    .orElseThrow(() -> new IllegalStateException("Product not found: " + productId));
             int quantity = cartItem.getQuantity();
 
-            Inventory inventory = inventoryRepository.findByProductId(product.getId())
-                    .orElseThrow(() -> new IllegalStateException("Inventory not found for product: " + product.getName()));
-
-            if (inventory.getQuantity() < quantity) {
-                throw new IllegalStateException("Insufficient stock for product: " + product.getName());
-            }
-
-            inventory.setQuantity(inventory.getQuantity() - quantity);
-            inventoryRepository.save(inventory);
-
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setProduct(product);
+            orderItem.setProduct(cartItem.getProduct());
             orderItem.setQuantity(quantity);
             orderItem.setPrice(BigDecimal.valueOf(product.getPrice()));
             orderItem.setProductName(product.getName());
@@ -99,9 +172,34 @@ public class OrderService {
         }
 
         orderItemRepository.saveAll(orderItems);
+        shopMetrics.record(ShopMetrics.ORDER_LINES, orderItems.size());
+
+        // Reserve stock last so row locks are held for as short a time as possible:
+        // one guarded UPDATE per product, in product-id order
+        Map<Long, Integer> quantitiesByProduct = new TreeMap<>();
+        for (CartItem cartItem : cart.getItems()) {
+            quantitiesByProduct.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+        }
+        inventoryService.reserveInventory(cart.getId(), quantitiesByProduct);
+        stockReservationService.consume(cart.getId(), quantitiesByProduct.keySet());
+
         order.setTotalAmount(totalAmount.doubleValue());
         orderRepository.save(order);
 
+        // ✅ OrderCreated goes out through the outbox, committed with the order itself
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (OrderItem item : orderItems) {
+            lines.add(OutboxService.payload("productId", item.getProduct().getId(),
+                    "quantity", item.getQuantity(),
+                    "price", item.getPrice()));
+        }
+        outboxService.record("order", order.getId(), "OrderCreated", OutboxService.payload(
+                "orderId", order.getId(),
+                "userId", userId,
+                "totalAmount", order.getTotalAmount(),
+                "paymentMethod", paymentMethod,
+                "items", lines));
+
         cart.getItems().clear();
         cartRepository.save(cart);
 
@@ -109,10 +207,61 @@ public class OrderService {
     }
 
     /**
-     * ✅ Get all orders placed by a user
+     * ✅ Cheap up-front checks before an order is queued for asynchronous placement
      */
-    public List<Order> getOrdersByUser(Long userId) {
-        return orderRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public void validateOrderRequest(Long userId, String paymentMethod) {
+        if (paymentMethod == null || paymentMethod.isBlank()) {
+            throw new IllegalArgumentException("Payment method is required");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        if (!cartItemRepository.existsByCart_User_Id(userId)) {
+            throw new IllegalStateException("Cart is empty");
+        }
+    }
+
+    /**
+     * ✅ Keyset-paginated order history, newest first.
+     * Seeks on (createdAt, id) and loads the page's items in one batched query.
+     */
+    @Transactional(readOnly = true)
+    public OrderHistoryPage getOrdersByUser(Long userId, String status, int size, String cursor, FieldSelection fields) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new CustomException("INVALID_PAGE_SIZE", "Page size must be between 1 and " + MAX_PAGE_SIZE, size);
+        }
+
+        Specification<Order> spec = OrderSpecifications.forUser(userId)
+                .and(OrderSpecifications.hasStatus(status));
+        if (cursor != null && !cursor.isBlank()) {
+            OrderCursor decoded = OrderCursor.decode(cursor, status);
+            spec = spec.and(OrderSpecifications.placedBefore(decoded.getLastCreatedAt(), decoded.getLastId()));
+        }
+
+        // Fetch one extra row to detect whether another page exists (no count query)
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        List<Order> rows = orderRepository.findBy(spec, q -> q.sortBy(newestFirst).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Order> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        // Line items are a second query; skip it when fields= leaves them out
+        Map<Long, List<OrderItem>> itemsByOrder = new HashMap<>();
+        boolean withItems = fields.nested("orders").includes("items");
+        if (withItems && !pageRows.isEmpty()) {
+            List<Long> orderIds = pageRows.stream().map(Order::getId).toList();
+            for (OrderItem item : orderItemRepository.findByOrderIds(orderIds)) {
+                itemsByOrder.computeIfAbsent(item.getOrder().getId(), id -> new ArrayList<>()).add(item);
+            }
+        }
+
+        List<OrderSummary> summaries = pageRows.stream()
+                .map(o -> OrderSummary.from(o, withItems ? itemsByOrder.getOrDefault(o.getId(), List.of()) : null))
+                .toList();
+        String nextCursor = hasMore ? OrderCursor.after(pageRows.get(pageRows.size() - 1), status).encode() : null;
+
+        log.info("Listed {} orders for user ID {} (status={}, hasMore={})", summaries.size(), userId, status, hasMore);
+        return new OrderHistoryPage(summaries, summaries.size(), nextCursor, hasMore);
     }
 
     /**
@@ -130,27 +279,81 @@ public class OrderService {
             unlinkProductsFromOrderItems(orderId);
         }
 
+        outboxService.record("order", orderId, "OrderStatusChanged", OutboxService.payload(
+                "orderId", orderId,
+                "status", status));
+
         return updatedOrder;
     }
 
     /**
      * ✅ Unlink product from order items once delivered
+     * (name/price snapshot and FK removal as one set-based statement)
      */
     @Transactional
     public void unlinkProductsFromOrderItems(Long orderId) {
-        List<OrderItem> items = orderItemRepository.findByOrderId(orderId);
-
-        for (OrderItem item : items) {
-            Product product = item.getProduct();
-            if (product != null) {
-                item.setProductName(product.getName());
-                item.setProductPrice(BigDecimal.valueOf(product.getPrice()));
-                item.setProduct(null);
-            }
+        int unlinked = orderItemRepository.snapshotAndUnlinkProducts(List.of(orderId));
+        log.info("Unlinked products from {} delivered order items for order ID {}", unlinked, orderId);
+    }
+
+    /**
+     * ✅ Transition many orders to one status (e.g. a logistics batch of deliveries).
+     * Orders are processed in batches, each in its own transaction, using set-based
+     * statements; statement count and wall time are reported per batch.
+     */
+    public BulkStatusResult updateStatusBulk(List<Long> orderIds, String status) {
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("Status is required");
+        }
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one order ID is required");
+        }
+        if (orderIds.size() > MAX_BULK_ORDERS) {
+            throw new CustomException("BULK_TOO_LARGE", "At most " + MAX_BULK_ORDERS + " orders per request", orderIds.size());
+        }
+
+        List<Long> distinctIds = orderIds.stream().distinct().sorted().toList();
+        boolean delivered = "DELIVERED".equalsIgnoreCase(status);
+        List<BulkStatusResult.Batch> batches = new ArrayList<>();
+        long startedAt = System.nanoTime();
+
+        for (int from = 0; from < distinctIds.size(); from += bulkBatchSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + bulkBatchSize, distinctIds.size()));
+            long batchStartedAt = System.nanoTime();
+            StatementCount statements = new StatementCount();
+
+            int[] counts = transactionTemplate.execute(tx -> {
+                entityManager.unwrap(Session.class).addEventListeners(statements);
+                List<Long> existing = orderRepository.findExistingIds(chunk);
+                if (existing.isEmpty()) {
+                    return new int[] {0, 0};
+                }
+                int updated = orderRepository.updateStatusByIds(existing, status);
+                int unlinked = delivered ? orderItemRepository.snapshotAndUnlinkProducts(existing) : 0;
+
+                Map<Long, Object> events = new LinkedHashMap<>();
+                for (Long orderId : existing) {
+                    events.put(orderId, OutboxService.payload("orderId", orderId, "status", status));
+                }
+                outboxService.recordAll("order", "OrderStatusChanged", events);
+                return new int[] {updated, unlinked};
+            });
+
+            BulkStatusResult.Batch batch = new BulkStatusResult.Batch(batches.size(), chunk.size(), counts[0], counts[1],
+                    statements.count,
+                    (System.nanoTime() - batchStartedAt) / 1_000_000);
+            batches.add(batch);
+            log.info("Bulk status batch {}: {}/{} orders -> {}, {} items unlinked, {} statements, {} ms",
+                    batch.index(), batch.updated(), batch.requested(), status, batch.unlinkedItems(),
+                    batch.statements(), batch.elapsedMs());
         }
 
-        orderItemRepository.saveAll(items);
-        log.info("Unlinked products from delivered order items for order ID {}", orderId);
+        return new BulkStatusResult(status, distinctIds.size(),
+                batches.stream().mapToInt(BulkStatusResult.Batch::updated).sum(),
+                batches.stream().mapToInt(BulkStatusResult.Batch::unlinkedItems).sum(),
+                batches.stream().mapToLong(BulkStatusResult.Batch::statements).sum(),
+                (System.nanoTime() - startedAt) / 1_000_000,
+                batches);
     }
 
     /**
@@ -160,4 +363,13 @@ public class OrderService {
         return orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
     }
+
+    /**
+     * ✅ Response view of one order: the order row plus its snapshot lines (no product or user graph)
+     */
+    @Transactional(readOnly = true)
+    public OrderSummary getOrderSummary(Long orderId) {
+        Order order = getOrderById(orderId);
+        return OrderSummary.from(order, orderItemRepository.findByOrderIds(List.of(orderId)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.OutboxEvent;
+import com.demo.entity.SchedulerLock;
+import com.demo.messaging.BrokerMessage;
+import com.demo.messaging.EventPublisher;
+import com.demo.repository.OutboxEventRepository;
+import com.demo.repository.SchedulerLockRepository;
+
+/**
+ * Drains the outbox table to the configured {@link EventPublisher} in id order, in batches,
+ * off the request path. Delivery is at least once: a crash between publish and commit re-sends the batch.
+ * Events of one aggregate are published in commit order: only the node holding the relay lock
+ * publishes, and a failing event holds back the later events of its aggregate (other aggregates
+ * carry on) until it is published or dead-lettered after max-attempts.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String RELAY_LOCK = "outbox-relay";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EventPublisher eventPublisher;
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.backoff-initial-ms:1000}")
+    private long backoffInitialMs;
+
+    @Value("${outbox.relay.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    /**
+     * ✅ Create the relay lock row once; a node losing the insert race finds it already there
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createRelayLock() {
+        if (schedulerLockRepository.existsById(RELAY_LOCK)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> schedulerLockRepository.save(new SchedulerLock(RELAY_LOCK)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Outbox relay lock created by another node");
+        }
+    }
+
+    /**
+     * ✅ Relay batches until no due event is left, a batch publishes nothing, or another node holds the relay lock
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * ✅ Purge published rows past the retention window, in batches
+     */
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = outboxEventRepository.findPublishedBefore(cutoff, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                List<Long> batch = ids;
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(batch));
+                purged += batch.size();
+            }
+        } while (ids.size() == batchSize);
+        if (purged > 0) {
+            log.info("🧹 Purged {} published outbox events", purged);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxEventRepository.countByPublishedAtIsNullAndFailedAtIsNull());
+        stats.put("deadLettered", outboxEventRepository.countByFailedAtIsNotNull());
+        stats.put("published", published.sum());
+        stats.put("failures", failures.sum());
+        stats.put("deadLetteredSinceStart", deadLettered.sum());
+        return stats;
+    }
+
+    // Publish one batch under the relay lock; returns the batch size when it published anything, so the caller
+    // keeps draining (failed events are backing off and the next query skips them and their aggregates)
+    private int relayBatch() {
+        if (schedulerLockRepository.tryLock(RELAY_LOCK).isEmpty()) {
+            return 0; // another node is relaying
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        List<OutboxEvent> batch = outboxEventRepository.findDue(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> done = new ArrayList<>(batch.size());
+        Set<String> heldBack = new HashSet<>(); // aggregates whose earlier event failed in this batch
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (heldBack.contains(aggregate)) {
+                continue;
+            }
+            try {
+                eventPublisher.publish(BrokerMessage.from(event));
+                done.add(event.getId());
+            } catch (Exception e) {
+                failures.increment();
+                if (!recordFailure(event, e, now)) {
+                    heldBack.add(aggregate);
+                }
+            }
+        }
+        try {
+            eventPublisher.flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush event publisher", e);
+            return 0; // leave the batch unpublished; it is re-sent on the next run
+        }
+        if (!done.isEmpty()) {
+            outboxEventRepository.markPublished(done, now);
+            published.add(done.size());
+        }
+        return done.isEmpty() ? 0 : batch.size();
+    }
+
+    // Schedule a retry, or dead-letter the event once it has used up its attempts (returns true when dead-lettered)
+    private boolean recordFailure(OutboxEvent event, Exception e, LocalDateTime now) {
+        int attempt = event.getAttempts() + 1;
+        String error = describe(e);
+        if (attempt >= maxAttempts) {
+            outboxEventRepository.markFailed(event.getId(), now, error);
+            deadLettered.increment();
+            log.error("⛔ Dead-lettered outbox event {} ({} for {} {}) after {} attempts", event.getId(),
+                    event.getEventType(), event.getAggregateType(), event.getAggregateId(), attempt, e);
+            return true;
+        }
+        outboxEventRepository.recordFailedAttempt(event.getId(), now.plusNanos(backoffMillis(attempt) * 1_000_000), error);
+        log.warn("Failed to publish outbox event {} ({}), attempt {}/{}", event.getId(), event.getEventType(),
+                attempt, maxAttempts, e);
+        return false;
+    }
+
+    // Exponential backoff with up to 20% jitter, as for outbound mail
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempt - 1, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static String describe(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -0,0 +1,72 @@
+package com.demo.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.demo.entity.OutboxEvent;
+import com.demo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes domain events to the outbox table as part of the caller's transaction.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * ✅ Record an event; must run inside the transaction that makes the state change.
+     * Payloads should be small maps/records, not entity graphs.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, toJson(eventType, payload)));
+    }
+
+    /**
+     * ✅ Record one event per aggregate in a single saveAll (bulk operations).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(String aggregateType, String eventType, Map<Long, ?> payloadsByAggregateId) {
+        List<OutboxEvent> events = new ArrayList<>(payloadsByAggregateId.size());
+        payloadsByAggregateId.forEach((aggregateId, payload) ->
+                events.add(new OutboxEvent(aggregateType, aggregateId, eventType, toJson(eventType, payload))));
+        outboxEventRepository.saveAll(events);
+    }
+
+    /**
+     * ✅ Event payload from alternating keys and values; unlike Map.of it accepts null values
+     * (a missing paymentMethod, say) and keeps the keys in the order given.
+     */
+    public static Map<String, Object> payload(Object... keysAndValues) {
+        if (keysAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("payload needs key/value pairs");
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            payload.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return payload;
+    }
+
+    private String toJson(String eventType, Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + eventType + " event", e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.demo.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demo.entity.Product;
+import com.demo.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-process cache in front of {@link ProductRepository#findById}.
+ * Entries are detached copies that never leave the cache: every lookup returns its own copy,
+ * so a caller mutating the result cannot corrupt what other callers see. Writers load the
+ * managed entity from the repository and call {@link #invalidate(Long)}. Stock is not
+ * authoritative here; stock checks read the inventory rows.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, Product> cache;
+
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        log.info("Product cache initialized (maxSize={}, ttl={}s)", maxSize, ttlSeconds);
+    }
+
+    /**
+     * ✅ Read-through lookup; misses load from the database. Returns a private copy of the entry.
+     */
+    public Optional<Product> get(Long productId) {
+        return Optional.ofNullable(cache.get(productId, id -> productRepository.findById(id)
+                .map(ProductCache::detachedCopy)
+                .orElse(null)))
+                .map(ProductCache::detachedCopy);
+    }
+
+    /**
+     * ✅ Drop an entry now and again once the surrounding transaction commits,
+     * so a concurrent reader cannot re-cache the pre-commit row.
+     */
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        cache.invalidate(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(productId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * ✅ Hit/miss/eviction counters for monitoring.
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        return result;
+    }
+
+    // 📊 Same counters as cache_gets_total{cache="product",result="hit|miss"}, cache_evictions_total, ...
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "product");
+    }
+
+    private static Product detachedCopy(Product source) {
+        Product copy = new Product(source.getName(), source.getDescription(), source.getPrice(),
+                source.getStock(), source.getCategory(), source.getImageUrl());
+        copy.setId(source.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.demo.entity.Product;
+import com.demo.exception.CustomException;
+
+/**
+ * Opaque continuation token for keyset product listing.
+ * Encodes the sort column, direction and the (value, id) of the last row served.
+ */
+public final class ProductCursor {
+
+    private static final String VERSION = "v1";
+
+    private final String sort;
+    private final boolean descending;
+    private final Long lastId;
+    private final String lastValue;
+
+    private ProductCursor(String sort, boolean descending, Long lastId, String lastValue) {
+        this.sort = sort;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    // ✅ Build cursor pointing after the given product
+    public static ProductCursor after(Product last, String sort, boolean descending) {
+        String value = switch (sort) {
+            case "price" -> String.valueOf(last.getPrice());
+            case "name" -> last.getName();
+            default -> String.valueOf(last.getId());
+        };
+        return new ProductCursor(sort, descending, last.getId(), value);
+    }
+
+    // ✅ Decode and check the token belongs to the requested ordering
+    public static ProductCursor decode(String token, String sort, boolean descending) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException("INVALID_CURSOR", "Malformed cursor", 0);
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new CustomException("INVALID_CURSOR", "Unsupported cursor", 0);
+        }
+        if (!parts[1].equals(sort) || Boolean.parseBoolean(parts[2]) != descending) {
+            throw new CustomException("INVALID_CURSOR", "Cursor does not match requested sort", 0);
+        }
+        try {
+            return new ProductCursor(parts[1], descending, Long.valueOf(parts[3]), parts[4]);
+        } catch (NumberFormatException e) {
+            throw new CustomException("INVALID_CURSOR", "Malformed cursor", 0);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, sort, String.valueOf(descending), String.valueOf(lastId), lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    // ✅ Typed sort value for binding into the keyset predicate
+    public Comparable<?> getLastSortValue() {
+        try {
+            return switch (sort) {
+                case "price" -> Double.valueOf(lastValue);
+                case "name" -> lastValue;
+                default -> Long.valueOf(lastValue);
+            };
+        } catch (NumberFormatException e) {
+            throw new CustomException("INVALID_CURSOR", "Malformed cursor", 0);
+        }
+    }
+}
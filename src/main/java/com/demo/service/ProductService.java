@@ -1,22 +1,30 @@
 package com.demo.service;
 
+import com.demo.dto.ProductPage;
+import com.demo.dto.ProductSummary;
 import com.demo.entity.Product;
 import com.demo.exception.CustomException;
 import com.demo.repository.OrderItemRepository;
 import com.demo.repository.ProductRepository;
+import com.demo.repository.ProductSpecifications;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "price");
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     private ProductRepository productRepository;
@@ -27,6 +35,9 @@ public class ProductService {
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
     @Transactional
     public Product createProduct(Product product) {
         if (product.getName() == null || product.getPrice() == null) {
@@ -35,6 +46,7 @@ public class ProductService {
 
         logger.info("Creating product: {}", product);
         Product savedProduct = productRepository.save(product);
+        productCache.invalidate(savedProduct.getId());
 
         // ✅ Sync product quantity into Inventory
         inventoryService.initializeInventory(savedProduct, product.getStock());
@@ -48,9 +60,47 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * ✅ Keyset-paginated catalog listing.
+     * Seeks past the cursor on (sort, id) so page cost does not grow with catalog size or depth.
+     */
+    public ProductPage listProducts(int size, String sort, String direction, String category,
+                                    Double minPrice, Double maxPrice, String cursor) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new CustomException("INVALID_PAGE_SIZE", "Page size must be between 1 and " + MAX_PAGE_SIZE, size);
+        }
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new CustomException("INVALID_SORT", "Unsupported sort field: " + sort, 0);
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+
+        Specification<Product> spec = ProductSpecifications.hasCategory(category)
+                .and(ProductSpecifications.priceBetween(minPrice, maxPrice));
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor decoded = ProductCursor.decode(cursor, sort, descending);
+            spec = spec.and(ProductSpecifications.after(sort, descending,
+                    decoded.getLastSortValue(), decoded.getLastId()));
+        }
+
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = "id".equals(sort) ? Sort.by(dir, "id") : Sort.by(dir, sort).and(Sort.by(dir, "id"));
+
+        // Fetch one extra row to detect whether another page exists (no count query)
+        List<Product> rows = productRepository.findBy(spec, q -> q.sortBy(order).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Product> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasMore
+                ? ProductCursor.after(pageRows.get(pageRows.size() - 1), sort, descending).encode()
+                : null;
+
+        logger.info("Listed {} products (sort={} {}, hasMore={})", pageRows.size(), sort, dir, hasMore);
+        return new ProductPage(pageRows.stream().map(ProductSummary::from).toList(), pageRows.size(), nextCursor, hasMore);
+    }
+
     public Product getProductById(Long id) {
         logger.info("Fetching product with ID: {}", id);
-        return productRepository.findById(id)
+        return productCache.get(id)
             .orElseThrow(() -> new CustomException("PRODUCT_NOT_FOUND", "Product not found", id));
     }
 
@@ -70,6 +120,7 @@ public class ProductService {
 
         // ✅ Delete product safely
         productRepository.delete(product);
+        productCache.invalidate(productId);
         logger.info("Deleted product with ID: {}", productId);
 
         return product;
@@ -87,7 +138,9 @@ public class ProductService {
         existingProduct.setCategory(updatedProduct.getCategory());
         existingProduct.setStock(updatedProduct.getStock());
 
-        return productRepository.save(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        productCache.invalidate(id);
+        return saved;
     }
 
     public Product updateProductName(Long id, String newName) {
@@ -96,6 +149,8 @@ public class ProductService {
             .orElseThrow(() -> new CustomException("PRODUCT_NOT_FOUND", "Product not found", id));
 
         existingProduct.setName(newName);
-        return productRepository.save(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        productCache.invalidate(id);
+        return saved;
     }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package com.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.StockHold;
+import com.demo.exception.CustomException;
+import com.demo.repository.StockHoldRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Time-boxed stock holds placed when products are added to a cart.
+ * Holds live in memory (product -> cart -> hold) so availability checks need no DB round trip;
+ * they are persisted periodically, converted into deductions at checkout and released by a
+ * background sweeper once they expire.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+    private record Hold(int quantity, LocalDateTime expiresAt) {
+        boolean isExpired(LocalDateTime now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    @Autowired
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private StockShardService stockShardService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${stock.hold.ttl-minutes:15}")
+    private long holdTtlMinutes;
+
+    @Value("${stock.hold.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    // productId -> (cartId -> hold); an inner map is only mutated inside compute() on its product key
+    private final Map<Long, Map<Long, Hold>> holdsByProduct = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> productsByCart = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyCarts = ConcurrentHashMap.newKeySet();
+
+    // Inventory availability per product for read-only checks (available-to-promise), refreshed briefly;
+    // hold() always reads the inventory rows and refreshes the entry
+    private final Cache<Long, Integer> stockLevels = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * ✅ Set a cart's hold on a product to the given quantity and restart its TTL.
+     * Fails when the stock not held by other carts cannot cover it.
+     */
+    public void hold(Long cartId, Long productId, int quantity) {
+        // A write: check against the inventory rows, not the briefly cached level
+        int stock = stockShardService.getAvailableQuantity(productId);
+        stockLevels.put(productId, stock);
+        LocalDateTime now = LocalDateTime.now();
+        Hold[] previous = new Hold[1];
+
+        holdsByProduct.compute(productId, (id, holds) -> {
+            Map<Long, Hold> current = holds != null ? holds : new ConcurrentHashMap<>();
+            int heldByOthers = current.entrySet().stream()
+                    .filter(e -> !e.getKey().equals(cartId) && !e.getValue().isExpired(now))
+                    .mapToInt(e -> e.getValue().quantity())
+                    .sum();
+            if (stock - heldByOthers < quantity) {
+                throw new CustomException("Insufficient stock", "Available stock is", Math.max(0, stock - heldByOthers));
+            }
+            previous[0] = current.put(cartId, new Hold(quantity, now.plusMinutes(holdTtlMinutes)));
+            return current;
+        });
+        productsByCart.computeIfAbsent(cartId, id -> ConcurrentHashMap.newKeySet()).add(productId);
+        dirtyCarts.add(cartId);
+
+        // Undo the in-memory hold if the cart change does not commit
+        afterRollback(() -> restore(cartId, productId, previous[0]));
+    }
+
+    /**
+     * ✅ Drop a cart's hold on one product once the cart change commits
+     */
+    public void release(Long cartId, Long productId) {
+        afterCommit(() -> releaseNow(cartId, productId));
+    }
+
+    /**
+     * ✅ Drop every hold of a cart once the cart change commits
+     */
+    public void releaseCart(Long cartId) {
+        afterCommit(() -> releaseCartNow(cartId));
+    }
+
+    /**
+     * ✅ Checkout converted the cart's holds into inventory deductions:
+     * once the order commits, release the holds and refresh the affected stock levels.
+     */
+    public void consume(Long cartId, Collection<Long> productIds) {
+        afterCommit(() -> {
+            releaseCartNow(cartId);
+            stockLevels.invalidateAll(productIds);
+        });
+    }
+
+    /**
+     * ✅ Quantity of a product held by live holds of carts other than the given one
+     */
+    public int getHeldByOthers(Long productId, Long cartId) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Hold> holds = holdsByProduct.get(productId);
+        return holds == null ? 0 : holds.entrySet().stream()
+                .filter(e -> !e.getKey().equals(cartId) && !e.getValue().isExpired(now))
+                .mapToInt(e -> e.getValue().quantity())
+                .sum();
+    }
+
+    /**
+     * ✅ Stock that is neither deducted nor held by a live cart
+     */
+    public int getAvailableToPromise(Long productId) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Hold> holds = holdsByProduct.get(productId);
+        int held = holds == null ? 0 : holds.values().stream()
+                .filter(h -> !h.isExpired(now))
+                .mapToInt(Hold::quantity)
+                .sum();
+        return Math.max(0, stockLevel(productId) - held);
+    }
+
+    /**
+     * ✅ Release expired holds from memory, then purge their persisted rows in batches
+     */
+    @Scheduled(fixedDelayString = "${stock.hold.sweep-interval-ms:30000}")
+    public void sweepExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = 0;
+        for (Long productId : holdsByProduct.keySet()) {
+            Set<Long> expiredCarts = new HashSet<>();
+            holdsByProduct.computeIfPresent(productId, (id, holds) -> {
+                holds.entrySet().removeIf(e -> {
+                    boolean expired = e.getValue().isExpired(now);
+                    if (expired) {
+                        expiredCarts.add(e.getKey());
+                    }
+                    return expired;
+                });
+                return holds.isEmpty() ? null : holds;
+            });
+            Map<Long, Hold> remaining = holdsByProduct.get(productId);
+            for (Long cartId : expiredCarts) {
+                Set<Long> products = productsByCart.get(cartId);
+                dirtyCarts.add(cartId);
+                if (products != null && (remaining == null || !remaining.containsKey(cartId))) {
+                    products.remove(productId);
+                }
+            }
+            released += expiredCarts.size();
+        }
+
+        int purged = 0;
+        List<Long> batch;
+        do {
+            batch = stockHoldRepository.findExpiredIds(now, PageRequest.of(0, purgeBatchSize));
+            if (!batch.isEmpty()) {
+                List<Long> ids = batch;
+                transactionTemplate.executeWithoutResult(status -> stockHoldRepository.deleteAllByIdInBatch(ids));
+                purged += ids.size();
+            }
+        } while (batch.size() == purgeBatchSize);
+
+        if (released > 0 || purged > 0) {
+            log.info("⏳ Released {} expired stock holds ({} persisted rows purged)", released, purged);
+        }
+    }
+
+    /**
+     * ✅ Persist the holds of carts changed since the last flush (replace-by-cart)
+     */
+    @Scheduled(fixedDelayString = "${stock.hold.flush-interval-ms:5000}")
+    public void flushHolds() {
+        if (dirtyCarts.isEmpty()) {
+            return;
+        }
+        Set<Long> carts = new HashSet<>(dirtyCarts);
+        dirtyCarts.removeAll(carts);
+
+        List<StockHold> rows = new ArrayList<>();
+        for (Long cartId : carts) {
+            for (Long productId : productsByCart.getOrDefault(cartId, Set.of())) {
+                Map<Long, Hold> holds = holdsByProduct.get(productId);
+                Hold hold = holds == null ? null : holds.get(cartId);
+                if (hold != null) {
+                    rows.add(new StockHold(cartId, productId, hold.quantity(), hold.expiresAt()));
+                }
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                stockHoldRepository.deleteByCartIdIn(carts);
+                stockHoldRepository.saveAll(rows);
+            });
+        } catch (RuntimeException e) {
+            dirtyCarts.addAll(carts); // retry on the next flush
+            log.warn("Failed to persist stock holds: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * ✅ Rebuild the in-memory holds from the last persisted snapshot
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPersistedHolds() {
+        List<StockHold> live = stockHoldRepository.findByExpiresAtAfter(LocalDateTime.now());
+        for (StockHold h : live) {
+            holdsByProduct.compute(h.getProductId(), (id, holds) -> {
+                Map<Long, Hold> current = holds != null ? holds : new ConcurrentHashMap<>();
+                current.put(h.getCartId(), new Hold(h.getQuantity(), h.getExpiresAt()));
+                return current;
+            });
+            productsByCart.computeIfAbsent(h.getCartId(), id -> ConcurrentHashMap.newKeySet()).add(h.getProductId());
+        }
+        log.info("Restored {} stock holds", live.size());
+    }
+
+    private int stockLevel(Long productId) {
+        return stockLevels.get(productId, stockShardService::getAvailableQuantity);
+    }
+
+    private void releaseNow(Long cartId, Long productId) {
+        holdsByProduct.computeIfPresent(productId, (id, holds) -> {
+            holds.remove(cartId);
+            return holds.isEmpty() ? null : holds;
+        });
+        Set<Long> products = productsByCart.get(cartId);
+        if (products != null) {
+            products.remove(productId);
+        }
+        dirtyCarts.add(cartId);
+    }
+
+    private void releaseCartNow(Long cartId) {
+        Set<Long> products = productsByCart.remove(cartId);
+        if (products != null) {
+            for (Long productId : products) {
+                holdsByProduct.computeIfPresent(productId, (id, holds) -> {
+                    holds.remove(cartId);
+                    return holds.isEmpty() ? null : holds;
+                });
+            }
+        }
+        dirtyCarts.add(cartId);
+    }
+
+    private void restore(Long cartId, Long productId, Hold previous) {
+        if (previous == null) {
+            releaseNow(cartId, productId);
+            return;
+        }
+        holdsByProduct.compute(productId, (id, holds) -> {
+            Map<Long, Hold> current = holds != null ? holds : new ConcurrentHashMap<>();
+            current.put(cartId, previous);
+            return current;
+        });
+        productsByCart.computeIfAbsent(cartId, id -> ConcurrentHashMap.newKeySet()).add(productId);
+        dirtyCarts.add(cartId);
+    }
+
+    // Run once the surrounding transaction commits (immediately outside a transaction)
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
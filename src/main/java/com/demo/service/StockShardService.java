@@ -0,0 +1,221 @@
+package com.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.demo.entity.Inventory;
+import com.demo.entity.InventorySlot;
+import com.demo.entity.Product;
+import com.demo.exception.CustomException;
+import com.demo.repository.InventoryRepository;
+import com.demo.repository.InventorySlotRepository;
+import com.demo.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Opt-in sharded stock counters for flash-sale SKUs.
+ * A sharded product keeps its stock in N InventorySlot rows (the Inventory row holds 0),
+ * so concurrent checkouts spread their row locks across slots instead of queueing on one row.
+ * Lock order is always Inventory row before slots, slots in ascending slot order: reservations
+ * and releases hold a shared lock on the Inventory row (compatible with each other), mode switches
+ * an exclusive one. A failed guarded UPDATE may keep its slot lock, so once a probe has failed a
+ * reservation only moves on to higher slot numbers.
+ */
+@Service
+public class StockShardService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockShardService.class);
+    private static final int MAX_SLOTS = 64;
+    private static final int MAX_PROBE_ROUNDS = 3;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventorySlotRepository slotRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Slot count per product, re-read periodically so mode switches on other nodes are picked up
+    private final Cache<Long, Integer> slotCounts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    /**
+     * ✅ Is this product currently in sharded mode? (cached, non-locking)
+     */
+    public boolean isSharded(Long productId) {
+        return slotCounts.get(productId,
+                id -> inventoryRepository.findSlotCountByProductId(id).orElse(0)) > 0;
+    }
+
+    /**
+     * ✅ Forget the cached mode and re-read it (used when a single-row update finds nothing).
+     */
+    public boolean refreshSharded(Long productId) {
+        slotCounts.invalidate(productId);
+        return isSharded(productId);
+    }
+
+    /**
+     * ✅ Reserve from a random slot, falling back to neighbouring slots.
+     * When no single slot can cover the quantity, slots are drained together under
+     * locks taken in slot order. Returns false if the product is not (or no longer) sharded.
+     */
+    @Transactional
+    public boolean reserve(Long productId, int quantity) {
+        if (lockSlotCount(productId) == 0) {
+            return false;
+        }
+
+        boolean lostRace = false;
+        int lastFailedSlot = -1;
+        for (int round = 0; round < MAX_PROBE_ROUNDS; round++) {
+            List<InventorySlotRepository.SlotLevel> levels = slotRepository.findLevelsByProductId(productId);
+            int slots = levels.size();
+            int start = ThreadLocalRandom.current().nextInt(slots);
+            boolean probed = false;
+            for (int k = 0; k < slots; k++) {
+                InventorySlotRepository.SlotLevel level = levels.get((start + k) % slots);
+                if (level.getSlotNo() <= lastFailedSlot || level.getQuantity() < quantity) {
+                    continue; // keep held slot locks ascending; skip slots that looked too low without locking them
+                }
+                probed = true;
+                if (slotRepository.decrementIfAvailable(productId, level.getSlotNo(), quantity) == 1) {
+                    return true;
+                }
+                lastFailedSlot = level.getSlotNo();
+            }
+            if (!probed) {
+                break; // stock is fragmented across slots
+            }
+            lostRace = true;
+        }
+
+        // A failed probe may still hold a slot lock; locking every slot now could invert
+        // the slot order against another drainer, so only drain when nothing is held.
+        if (lostRace) {
+            throw new IllegalStateException("Insufficient stock for product: " + productId);
+        }
+        return drain(productId, quantity);
+    }
+
+    /**
+     * ✅ Return quantity to a random slot. Returns false if the product is not sharded.
+     */
+    @Transactional
+    public boolean release(Long productId, int quantity) {
+        int slots = lockSlotCount(productId);
+        if (slots == 0) {
+            return false;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        return slotRepository.increment(productId, slot, quantity) == 1;
+    }
+
+    /**
+     * ✅ Split (or re-split) a product's stock evenly across the given number of slots.
+     */
+    @Transactional
+    public void enableSharding(Long productId, int slots) {
+        if (slots < 2 || slots > MAX_SLOTS) {
+            throw new CustomException("INVALID_SLOT_COUNT", "Slot count must be between 2 and " + MAX_SLOTS, slots);
+        }
+        Inventory inventory = lockInventory(productId);
+        int total = inventory.getQuantity() + collectSlots(productId);
+
+        Product product = productRepository.getReferenceById(productId);
+        List<InventorySlot> newSlots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            newSlots.add(new InventorySlot(product, i, total / slots + (i < total % slots ? 1 : 0)));
+        }
+        slotRepository.saveAll(newSlots);
+
+        inventory.setQuantity(0);
+        inventory.setSlotCount(slots);
+        inventoryRepository.save(inventory);
+        slotCounts.put(productId, slots);
+        log.info("🧩 Sharded stock of product {} across {} slots ({} units)", productId, slots, total);
+    }
+
+    /**
+     * ✅ Fold all slots back into the single Inventory row.
+     */
+    @Transactional
+    public void disableSharding(Long productId) {
+        Inventory inventory = lockInventory(productId);
+        int total = inventory.getQuantity() + collectSlots(productId);
+
+        inventory.setQuantity(total);
+        inventory.setSlotCount(0);
+        inventoryRepository.save(inventory);
+        slotCounts.put(productId, 0);
+        log.info("🧩 Unsharded stock of product {} ({} units)", productId, total);
+    }
+
+    /**
+     * ✅ Total availability: Inventory row plus all slots.
+     */
+    @Transactional(readOnly = true)
+    public int getAvailableQuantity(Long productId) {
+        return inventoryRepository.findAvailableQuantityByProductId(productId)
+                .map(Long::intValue)
+                .orElseThrow(() -> new CustomException("Inventory not found", "for product", productId));
+    }
+
+    // Take the quantity from several slots, locking all of them in slot order
+    private boolean drain(Long productId, int quantity) {
+        List<InventorySlot> locked = slotRepository.lockByProductId(productId);
+        int available = locked.stream().mapToInt(InventorySlot::getQuantity).sum();
+        if (available < quantity) {
+            throw new IllegalStateException("Insufficient stock for product: " + productId);
+        }
+        int remaining = quantity;
+        for (InventorySlot slot : locked) {
+            int take = Math.min(slot.getQuantity(), remaining);
+            if (take > 0) {
+                slotRepository.decrementIfAvailable(productId, slot.getSlotNo(), take);
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        log.debug("Drained {} units of product {} across slots", quantity, productId);
+        return true;
+    }
+
+    // Shared-lock the Inventory row and read the current slot count (0 = single-row mode)
+    private int lockSlotCount(Long productId) {
+        int slots = inventoryRepository.lockSharedByProductId(productId).map(Inventory::getSlotCount).orElse(0);
+        if (slots == 0) {
+            slotCounts.invalidate(productId);
+        }
+        return slots;
+    }
+
+    private Inventory lockInventory(Long productId) {
+        return inventoryRepository.lockByProductId(productId)
+                .orElseThrow(() -> new CustomException("Inventory not found", "for product", productId));
+    }
+
+    // Lock, sum and delete all slots of a product
+    private int collectSlots(Long productId) {
+        int total = slotRepository.lockByProductId(productId).stream()
+                .mapToInt(InventorySlot::getQuantity)
+                .sum();
+        slotRepository.deleteByProductId(productId);
+        return total;
+    }
+}
@@ -1,19 +1,19 @@
 package com.demo.service;
 
-import java.time.LocalDateTime;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.List;
-import java.util.Random;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.demo.dto.UserView;
 import com.demo.entity.Cart;
-import com.demo.entity.OtpToken;
 import com.demo.entity.User;
+import com.demo.metrics.ShopMetrics;
+import com.demo.otp.OtpStore;
 import com.demo.repository.CartRepository;
-import com.demo.repository.OtpTokenRepository;
 import com.demo.repository.UserRepository;
 
 import jakarta.transaction.Transactional;
@@ -27,13 +27,20 @@ public class UserService {
 
     @Autowired
     private CartRepository cartRepository;
-    
-   
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
     @Autowired
-    private JavaMailSender mailSender;
+    private OtpStore otpStore;
 
     @Autowired
-    private OtpTokenRepository otpTokenRepository;
+    private ShopMetrics shopMetrics;
+
+    @Value("${otp.ttl-minutes:10}")
+    private long otpTtlMinutes;
+
+    private final SecureRandom otpRandom = new SecureRandom();
 
     // ✅ Register new user with OTP verification and auto-linked cart
     public User registerUser(User user, String otp) {
@@ -42,9 +49,12 @@ public class UserService {
             throw new IllegalArgumentException("Email already registered");
         }
 
-        // Verify OTP before proceeding
-        boolean verified = verifyOtp(user.getEmail(), otp);
-        if (!verified) {
+        // Verify OTP before proceeding (counts towards the per-email attempt limit)
+        OtpStore.Outcome outcome = checkOtp(user.getEmail(), otp);
+        if (outcome == OtpStore.Outcome.TOO_MANY_ATTEMPTS) {
+            throw new IllegalArgumentException("Too many invalid OTP attempts; request a new OTP");
+        }
+        if (outcome != OtpStore.Outcome.VERIFIED) {
             throw new IllegalArgumentException("Invalid or expired OTP");
         }
 
@@ -71,6 +81,16 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // ✅ Profile views (single projection query, no orders/cart graph)
+    public UserView getUserView(Long id) {
+        return userRepository.findViewById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+    }
+
+    public List<UserView> getAllUserViews() {
+        return userRepository.findAllViews();
+    }
+
     // ✅ Update user by ID
     public User updateUser(Long id, User updatedUser) {
         User existingUser = getUserById(id);
@@ -96,31 +116,31 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
     public void sendOtp(String email) {
-        // Check if email already registered
-        if (userRepository.existsByEmail(email)) {
-            throw new IllegalArgumentException("Email already registered");
-        }
-
-        // Generate 6-digit OTP
-        String otp = String.valueOf(new Random().nextInt(900000) + 100000);
-
-        // Save OTP token with expiry
-        OtpToken token = new OtpToken(email, otp, LocalDateTime.now().plusMinutes(10));
-        otpTokenRepository.save(token);
-
-        // Send email
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        message.setSubject("Your OTP for Registration");
-        message.setText("Hello,\n\nYour OTP is: " + otp + "\nIt expires in 10 minutes.\n\nRegards,\nDemo App");
-        mailSender.send(message);
+        shopMetrics.time(ShopMetrics.OTP_SEND, () -> {
+            // Check if email already registered
+            if (userRepository.existsByEmail(email)) {
+                throw new IllegalArgumentException("Email already registered");
+            }
+
+            // Generate 6-digit OTP
+            String otp = String.valueOf(otpRandom.nextInt(900000) + 100000);
+
+            // Store OTP with expiry (replaces any earlier code for this email)
+            otpStore.put(email, otp, Duration.ofMinutes(otpTtlMinutes));
+
+            // Queue email (sent by MailDispatcher workers)
+            return mailDispatcher.enqueue(email, "Your OTP for Registration",
+                    "Hello,\n\nYour OTP is: " + otp + "\nIt expires in " + otpTtlMinutes + " minutes.\n\nRegards,\nDemo App");
+        });
     }
     public boolean verifyOtp(String email, String otp) {
-        return otpTokenRepository.findByEmailAndOtp(email, otp)
-            .filter(token -> token.getExpiresAt().isAfter(LocalDateTime.now()))
-            .map(token -> {
-                otpTokenRepository.deleteByEmail(email); // cleanup
-                return true;
-            }).orElse(false);
+        return checkOtp(email, otp) == OtpStore.Outcome.VERIFIED;
+    }
+
+    private OtpStore.Outcome checkOtp(String email, String otp) {
+        if (email == null || otp == null) {
+            return OtpStore.Outcome.INVALID;
+        }
+        return otpStore.verify(email, otp);
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.demo.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The filter with the routes shipped in application.properties: every costly invoice endpoint
+ * is rate limited per client IP, rejections carry Retry-After, and unlisted paths pass untouched.
+ */
+class AdmissionFilterTests {
+
+    private AdmissionFilter filter;
+
+    @BeforeEach
+    void shippedRoutes() throws Exception {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        AdmissionProperties admission = new Binder(new MapConfigurationPropertySource(properties))
+                .bind("admission", AdmissionProperties.class).get();
+        filter = new AdmissionFilter(admission, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void downloadAndPreviewAreRateLimited() throws Exception {
+        for (String path : new String[] {"/api/invoices/7/download", "/api/invoices/7/preview"}) {
+            int admitted = admittedBeforeRejection(path, 100);
+            assertEquals(30, admitted, path + " burst");
+            MockHttpServletResponse rejected = send(path);
+            assertEquals(429, rejected.getStatus(), path);
+            assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER), path + " refills every 200ms");
+        }
+    }
+
+    @Test
+    void exportIsRateLimitedWithRetryAfterOfOneRefill() throws Exception {
+        assertEquals(3, admittedBeforeRejection("/api/invoices/export", 10));
+        MockHttpServletResponse rejected = send("/api/invoices/export");
+        assertEquals(429, rejected.getStatus());
+        long retryAfter = Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter > 0 && retryAfter <= 20, "Retry-After within one 20s refill: " + retryAfter);
+        assertTrue(rejected.getContentAsString().contains("RATE_LIMITED"), rejected.getContentAsString());
+    }
+
+    @Test
+    void unlistedPathsPassThrough() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            MockHttpServletResponse response = send("/api/invoices/generateInvoice/7");
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+        }
+    }
+
+    private int admittedBeforeRejection(String path, int max) throws Exception {
+        for (int i = 0; i < max; i++) {
+            if (send(path).getStatus() != 200) {
+                return i;
+            }
+        }
+        return max;
+    }
+
+    private MockHttpServletResponse send(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,88 @@
+package com.demo.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Adaptive in-flight limit: slots up to the limit, additive increase while the limit is in use,
+ * multiplicative decrease on slow or failed responses (at most once per latency target), and the
+ * min/max bounds.
+ */
+class ConcurrencyLimitTests {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long SLOW = TARGET + 1;
+
+    @Test
+    void admitsUpToTheLimit() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(2, 1, 10, TARGET);
+
+        assertEquals(1, limit.tryAcquire());
+        assertEquals(2, limit.tryAcquire());
+        assertEquals(-1, limit.tryAcquire(), "third concurrent request is shed");
+        assertEquals(2, limit.inFlight(), "a shed request holds no slot");
+
+        limit.release(2, 0, false);
+        assertEquals(2, limit.tryAcquire(), "released slot is reusable");
+    }
+
+    @Test
+    void fastResponsesRaiseTheLimitOnlyWhileItIsInUse() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(4, 1, 10, TARGET);
+
+        limit.tryAcquire();
+        limit.release(1, 0, false);
+        assertEquals(4.0, limit.limit(), "mostly idle route does not grow");
+
+        limit.tryAcquire();
+        limit.release(2, 0, false);
+        assertEquals(4.25, limit.limit(), 1e-9, "busy route grows by 1/limit");
+    }
+
+    @Test
+    void slowOrFailedResponsesCutTheLimitOncePerTarget() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit(10, 1, 10, TARGET);
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(TARGET) + 5);
+        limit.tryAcquire();
+        limit.release(1, SLOW, false);
+        assertEquals(9.0, limit.limit(), 1e-9, "slow response cuts by 10%");
+
+        limit.tryAcquire();
+        limit.release(1, 0, true);
+        assertEquals(9.0, limit.limit(), 1e-9, "second cut within one latency target is skipped");
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(TARGET) + 5);
+        limit.tryAcquire();
+        limit.release(1, 0, true);
+        assertEquals(8.1, limit.limit(), 1e-9, "5xx response cuts by 10%");
+    }
+
+    @Test
+    void limitStaysWithinBounds() throws InterruptedException {
+        ConcurrencyLimit shrinking = new ConcurrencyLimit(3, 2, 10, TimeUnit.MICROSECONDS.toNanos(1));
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(1);
+            shrinking.tryAcquire();
+            shrinking.release(1, TimeUnit.SECONDS.toNanos(1), false);
+        }
+        assertEquals(2.0, shrinking.limit(), "never below the minimum");
+
+        ConcurrencyLimit growing = new ConcurrencyLimit(5, 1, 5, TARGET);
+        growing.tryAcquire();
+        growing.release(5, 0, false);
+        assertEquals(5.0, growing.limit(), "never above the maximum");
+    }
+
+    @Test
+    void initialLimitIsClampedAndDefaultsToTheMaximum() {
+        assertEquals(8.0, new ConcurrencyLimit(0, 1, 8, TARGET).limit());
+        assertEquals(8.0, new ConcurrencyLimit(50, 1, 8, TARGET).limit());
+        assertEquals(3.0, new ConcurrencyLimit(1, 3, 8, TARGET).limit());
+        assertTrue(new ConcurrencyLimit(1, 0, 0, TARGET).limit() >= 1, "minimum is at least one");
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Per-key token buckets: burst up to capacity, then a wait of up to one refill period,
+ * independent keys, and refunds. Refill periods are long enough that no token comes back
+ * while a test runs.
+ */
+class TokenBucketsTests {
+
+    private static final Duration PERIOD = Duration.ofMinutes(10);
+
+    @Test
+    void admitsBurstUpToCapacityThenRejects() {
+        TokenBuckets buckets = new TokenBuckets(3, PERIOD, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("a"), "request " + (i + 1) + " of the burst");
+        }
+        long wait = buckets.tryAcquire("a");
+        assertTrue(wait > 0, "fourth request is rejected");
+        assertTrue(wait <= PERIOD.toNanos() && wait > PERIOD.minusMinutes(1).toNanos(),
+                "wait is about one refill period: " + wait);
+    }
+
+    @Test
+    void rejectionsDoNotTakeTokens() {
+        TokenBuckets buckets = new TokenBuckets(1, PERIOD, 100);
+
+        assertEquals(0, buckets.tryAcquire("a"));
+        long first = buckets.tryAcquire("a");
+        long second = buckets.tryAcquire("a");
+        assertTrue(first > 0 && second > 0, "both rejected");
+        assertTrue(second <= first, "a rejected request does not push the next token further out");
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        TokenBuckets buckets = new TokenBuckets(1, PERIOD, 100);
+
+        assertEquals(0, buckets.tryAcquire("a"));
+        assertTrue(buckets.tryAcquire("a") > 0);
+        assertEquals(0, buckets.tryAcquire("b"));
+        assertEquals(2, buckets.size());
+    }
+
+    @Test
+    void refundGivesBackOneToken() {
+        TokenBuckets buckets = new TokenBuckets(2, PERIOD, 100);
+
+        assertEquals(0, buckets.tryAcquire("a"));
+        assertEquals(0, buckets.tryAcquire("a"));
+        assertTrue(buckets.tryAcquire("a") > 0);
+
+        buckets.refund("a");
+        assertEquals(0, buckets.tryAcquire("a"), "refunded token is available again");
+        assertTrue(buckets.tryAcquire("a") > 0, "only one token came back");
+    }
+
+    @Test
+    void refundOfUnknownKeyIsIgnored() {
+        TokenBuckets buckets = new TokenBuckets(1, PERIOD, 100);
+
+        buckets.refund("never-seen");
+        assertEquals(0, buckets.size());
+        assertEquals(0, buckets.tryAcquire("never-seen"));
+        assertTrue(buckets.tryAcquire("never-seen") > 0, "refund before first use adds no credit");
+    }
+}
@@ -0,0 +1,152 @@
+package com.demo.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.Cart;
+import com.demo.entity.Inventory;
+import com.demo.entity.Order;
+import com.demo.entity.OrderItem;
+import com.demo.entity.Product;
+import com.demo.entity.User;
+import com.demo.repository.InventoryRepository;
+import com.demo.repository.OrderRepository;
+import com.demo.repository.ProductRepository;
+import com.demo.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Seeds a catalogue, customers and order history through the repositories, in batched
+ * transactions (pooled ids + JDBC batching), with a fixed random seed so every run and
+ * every fork sees the same data.
+ */
+public class DataGenerator {
+
+    private static final int BATCH = 500;
+    private static final String[] STATUSES = {"DELIVERED", "DELIVERED", "DELIVERED", "SHIPPED", "PENDING"};
+    private static final String[] PAYMENT_METHODS = {"UPI", "CARD", "COD", "NETBANKING"};
+
+    public static final List<String> CATEGORIES =
+            List.of("electronics", "books", "home", "fashion", "toys", "grocery", "sports", "beauty");
+
+    // Stock large enough that no benchmark or load run can sell a product out
+    public static final int STOCK = 1_000_000_000;
+
+    // ✅ Ids of what was seeded, for benchmarks and load runs to pick from
+    public record Dataset(List<Long> productIds, List<Long> userIds, List<Long> cartIds, List<Long> orderIds) {}
+
+    private final TransactionTemplate tx;
+    private final EntityManager entityManager;
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    public DataGenerator(ApplicationContext context) {
+        this.tx = context.getBean(TransactionTemplate.class);
+        this.entityManager = context.getBean(EntityManager.class);
+        this.productRepository = context.getBean(ProductRepository.class);
+        this.inventoryRepository = context.getBean(InventoryRepository.class);
+        this.userRepository = context.getBean(UserRepository.class);
+        this.orderRepository = context.getBean(OrderRepository.class);
+    }
+
+    public Dataset seed(int products, int users, int ordersPerUser, int linesPerOrder) {
+        List<Product> catalogue = seedProducts(products);
+        List<User> customers = seedUsers(users);
+        List<Long> orderIds = seedOrders(customers, catalogue, ordersPerUser, linesPerOrder);
+        return new Dataset(catalogue.stream().map(Product::getId).toList(),
+                customers.stream().map(User::getId).toList(),
+                customers.stream().map(user -> user.getCart().getId()).toList(),
+                orderIds);
+    }
+
+    private List<Product> seedProducts(int count) {
+        List<Product> seeded = new ArrayList<>(count);
+        for (int from = 0; from < count; from += BATCH) {
+            int to = Math.min(from + BATCH, count);
+            int first = from;
+            tx.executeWithoutResult(status -> {
+                List<Product> batch = new ArrayList<>(to - first);
+                for (int i = first; i < to; i++) {
+                    String category = CATEGORIES.get(i % CATEGORIES.size());
+                    double price = Math.round((49 + random.nextDouble() * 4950) * 100) / 100.0;
+                    batch.add(new Product("Product " + i, "Generated " + category + " item " + i, price, STOCK, category,
+                            "https://cdn.example.com/p/" + i + ".jpg"));
+                }
+                productRepository.saveAll(batch);
+                inventoryRepository.saveAll(batch.stream().map(p -> new Inventory(p, STOCK)).toList());
+                entityManager.flush();
+                entityManager.clear();
+                seeded.addAll(batch);
+            });
+        }
+        return seeded;
+    }
+
+    private List<User> seedUsers(int count) {
+        List<User> seeded = new ArrayList<>(count);
+        for (int from = 0; from < count; from += BATCH) {
+            int to = Math.min(from + BATCH, count);
+            int first = from;
+            tx.executeWithoutResult(status -> {
+                List<User> batch = new ArrayList<>(to - first);
+                for (int i = first; i < to; i++) {
+                    User user = new User("Customer " + i, "customer" + i + "@example.com", "password-" + i,
+                            i + " Billing Street, Pune", i + " Shipping Road, Pune");
+                    user.setEmailVerified(true);
+                    Cart cart = new Cart();
+                    cart.setUser(user);
+                    user.setCart(cart);
+                    batch.add(user);
+                }
+                seeded.addAll(userRepository.saveAll(batch));
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return seeded;
+    }
+
+    private List<Long> seedOrders(List<User> users, List<Product> catalogue, int ordersPerUser, int linesPerOrder) {
+        List<Long> orderIds = new ArrayList<>(users.size() * ordersPerUser);
+        int total = users.size() * ordersPerUser;
+        for (int from = 0; from < total; from += BATCH) {
+            int to = Math.min(from + BATCH, total);
+            int first = from;
+            tx.executeWithoutResult(status -> {
+                List<Order> batch = new ArrayList<>(to - first);
+                for (int n = first; n < to; n++) {
+                    User user = entityManager.getReference(User.class, users.get(n / ordersPerUser).getId());
+                    Order order = new Order();
+                    order.setUser(user);
+                    order.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+                    order.setPaymentMethod(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+                    order.setBillingAddress(users.get(n / ordersPerUser).getBillingAddress());
+                    order.setShippingAddress(users.get(n / ordersPerUser).getShippingAddress());
+                    BigDecimal orderTotal = BigDecimal.ZERO;
+                    for (int line = 0; line < linesPerOrder; line++) {
+                        Product product = catalogue.get(random.nextInt(catalogue.size()));
+                        OrderItem item = new OrderItem(product, 1 + random.nextInt(4), order);
+                        item.setProduct(entityManager.getReference(Product.class, product.getId()));
+                        order.getOrderItems().add(item);
+                        orderTotal = orderTotal.add(item.getItemTotal());
+                    }
+                    order.setTotalAmount(orderTotal.doubleValue());
+                    batch.add(order);
+                }
+                orderRepository.saveAll(batch).forEach(o -> orderIds.add(o.getId()));
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return orderIds;
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.demo.invoice.InvoiceDocument;
+import com.demo.invoice.InvoiceRenderer;
+import com.demo.invoice.OpenPdfInvoiceRenderer;
+import com.demo.invoice.PdfBoxInvoiceRenderer;
+
+/**
+ * Render latency and allocation per invoice for both engines, for a small and a
+ * multi-page order. Run with {@code mvn -Pbenchmark verify -Djmh.include=InvoiceRender}
+ * (allocation comes from the GC profiler: gc.alloc.rate.norm, bytes per invoice).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceRenderBenchmark {
+
+    @Param({"pdfbox", "openpdf"})
+    public String engine;
+
+    @Param({"5", "200"})
+    public int lines;
+
+    private InvoiceRenderer renderer;
+    private InvoiceDocument document;
+
+    @Setup
+    public void setUp() {
+        renderer = "openpdf".equals(engine) ? new OpenPdfInvoiceRenderer() : new PdfBoxInvoiceRenderer();
+        List<InvoiceDocument.Line> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(new InvoiceDocument.Line("Benchmark product " + i, 1 + i % 5, BigDecimal.valueOf(99.50 + i)));
+        }
+        document = new InvoiceDocument("INV-20250101-000001", LocalDate.of(2025, 1, 1), "Bench Customer",
+                "12 Billing Street, Pune", "34 Shipping Road, Pune", "UPI", items,
+                new BigDecimal("180.00"), new BigDecimal("50"), new BigDecimal("1000.00"));
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return renderer.render(document);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvoiceRenderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
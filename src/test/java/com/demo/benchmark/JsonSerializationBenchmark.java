@@ -0,0 +1,118 @@
+package com.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.demo.dto.OrderSummary;
+import com.demo.dto.UserView;
+import com.demo.entity.Cart;
+import com.demo.entity.Order;
+import com.demo.entity.OrderItem;
+import com.demo.entity.Product;
+import com.demo.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Response serialization cost of orders and users: the entity graphs the API used to
+ * return next to the projections it returns now. No database; the mapper is built the
+ * way Spring Boot builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"5", "20"})
+    public int lines;
+
+    private ObjectMapper mapper;
+    private Order order;
+    private OrderSummary orderSummary;
+    private User user;
+    private UserView userView;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        user = new User("Bench Customer", "bench@example.com", "secret", "12 Billing Street, Pune", "34 Shipping Road, Pune");
+        user.setId(1L);
+        user.setEmailVerified(true);
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user);
+        user.setCart(cart);
+
+        order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        order.setStatus("PENDING");
+        order.setPaymentMethod("UPI");
+        order.setBillingAddress(user.getBillingAddress());
+        order.setShippingAddress(user.getShippingAddress());
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product("Benchmark product " + i, "Description of product " + i, 99.50 + i, 1000,
+                    "electronics", "https://cdn.example.com/p/" + i + ".jpg");
+            product.setId((long) i);
+            OrderItem item = new OrderItem(product, 1 + i % 5, order);
+            item.setId((long) i);
+            order.addOrderItem(item);
+            total += item.getItemTotal().doubleValue();
+        }
+        order.setTotalAmount(total);
+        user.addOrder(order);
+
+        orderSummary = OrderSummary.from(order, order.getOrderItems());
+        userView = UserView.from(user);
+    }
+
+    @Benchmark
+    public byte[] orderEntity() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderSummary() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(orderSummary);
+    }
+
+    @Benchmark
+    public byte[] userEntity() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] userView() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(userView);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.demo.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.ECommerceApplication;
+
+/**
+ * The application without its web layer, on the in-memory H2 database of the test
+ * profile, seeded by {@link DataGenerator} once per fork. Volumes are JMH parameters,
+ * e.g. {@code -p products=50000 -p users=5000}.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    @Param("10000")
+    public int products;
+
+    @Param("1000")
+    public int users;
+
+    @Param("20")
+    public int ordersPerUser;
+
+    @Param("5")
+    public int linesPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private DataGenerator.Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ECommerceApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "logging.level.root=WARN",
+                        "logging.level.com.demo=WARN",
+                        "spring.main.banner-mode=off")
+                .run();
+        dataset = new DataGenerator(context).seed(products, users, ordersPerUser, linesPerOrder);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public DataGenerator.Dataset dataset() {
+        return dataset;
+    }
+}
@@ -0,0 +1,175 @@
+package com.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.demo.entity.Cart;
+import com.demo.entity.Order;
+import com.demo.entity.OrderItem;
+import com.demo.entity.Product;
+import com.demo.service.CartService;
+import com.demo.service.InventoryService;
+import com.demo.service.InvoiceService;
+import com.demo.service.OrderService;
+import com.demo.service.ProductService;
+
+/**
+ * Throughput and sampled latency of the service-layer hot paths against a seeded
+ * in-memory database (see {@link SeededApplication} for the volumes). Each benchmark
+ * thread shops as its own customer. Run all JMH benchmarks with
+ * {@code mvn -Pbenchmark verify}; results go to target/jmh-result.json.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceLayerBenchmark {
+
+    private static final int CART_LINES = 5;
+    private static final int INVOICE_POOL = 100;
+
+    /**
+     * 🔍 One customer per benchmark thread, with the products it shops for.
+     */
+    @State(Scope.Thread)
+    public static class Shopper {
+
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        Long userId;
+        Long cartId;
+        List<Long> productIds;
+        Order detachedOrder;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(SeededApplication app) {
+            DataGenerator.Dataset dataset = app.dataset();
+            int slot = NEXT.getAndIncrement();
+            userId = dataset.userIds().get(slot % dataset.userIds().size());
+            cartId = dataset.cartIds().get(slot % dataset.cartIds().size());
+
+            // A spread of products per thread, so threads do not contend on the same stock rows
+            int stride = Math.max(1, dataset.productIds().size() / 64);
+            productIds = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                productIds.add(dataset.productIds().get((slot + i * stride) % dataset.productIds().size()));
+            }
+
+            // Order shape seen by deductStock: only the product ids and quantities are read
+            detachedOrder = new Order();
+            for (int i = 0; i < CART_LINES; i++) {
+                Product product = new Product();
+                product.setId(productIds.get(i));
+                product.setPrice(10.0);
+                detachedOrder.addOrderItem(new OrderItem(product, 1, detachedOrder));
+            }
+        }
+
+        Long nextProduct() {
+            return productIds.get(next++ % productIds.size());
+        }
+    }
+
+    /**
+     * 🧾 Invoices rendered up front, so the benchmark measures serving a stored PDF.
+     */
+    @State(Scope.Benchmark)
+    public static class Invoices {
+
+        List<Long> orderIds;
+        final AtomicInteger next = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp(SeededApplication app) {
+            List<Long> seeded = app.dataset().orderIds();
+            orderIds = seeded.subList(0, Math.min(INVOICE_POOL, seeded.size()));
+            InvoiceService invoiceService = app.bean(InvoiceService.class);
+            for (Long orderId : orderIds) {
+                invoiceService.getOrCreateInvoice(orderId);
+                invoiceService.generateInvoicePdf(orderId);
+            }
+        }
+    }
+
+    /**
+     * 🔍 Shopper whose cart holds {@value #CART_LINES} lines before every checkout.
+     */
+    @State(Scope.Thread)
+    public static class CheckoutShopper extends Shopper {
+
+        @Setup(Level.Invocation)
+        public void fillCart(SeededApplication app) {
+            CartService cartService = app.bean(CartService.class);
+            for (int i = 0; i < CART_LINES; i++) {
+                cartService.addItemToCart(cartId, productIds.get(i), 1);
+            }
+        }
+    }
+
+    /**
+     * 🔍 Shopper starting every iteration with an empty cart.
+     */
+    @State(Scope.Thread)
+    public static class BrowsingShopper extends Shopper {
+
+        @Setup(Level.Iteration)
+        public void clearCart(SeededApplication app) {
+            app.bean(CartService.class).clearCart(cartId);
+        }
+    }
+
+    @Benchmark
+    public Order placeOrder(SeededApplication app, CheckoutShopper shopper) {
+        return app.bean(OrderService.class).placeOrder(shopper.userId, "UPI");
+    }
+
+    @Benchmark
+    public Cart addItemToCart(SeededApplication app, BrowsingShopper shopper) {
+        return app.bean(CartService.class).addItemToCart(shopper.cartId, shopper.nextProduct(), 1);
+    }
+
+    @Benchmark
+    public Order deductStock(SeededApplication app, Shopper shopper) {
+        app.bean(InventoryService.class).deductStock(shopper.detachedOrder);
+        return shopper.detachedOrder;
+    }
+
+    @Benchmark
+    public List<Product> getAllProducts(SeededApplication app) {
+        return app.bean(ProductService.class).getAllProducts();
+    }
+
+    @Benchmark
+    public byte[] generateInvoicePdf(SeededApplication app, Invoices invoices) {
+        List<Long> orderIds = invoices.orderIds;
+        return app.bean(InvoiceService.class)
+                .generateInvoicePdf(orderIds.get(Math.floorMod(invoices.next.getAndIncrement(), orderIds.size())));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ServiceLayerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,180 @@
+package com.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.demo.entity.Cart;
+import com.demo.entity.Product;
+import com.demo.entity.User;
+import com.demo.repository.UserRepository;
+import com.demo.service.CartService;
+import com.demo.service.OrderService;
+import com.demo.service.ProductService;
+
+/**
+ * Conditional and range handling of the invoice PDF endpoints: full body, single range,
+ * ETag revalidation, unsatisfiable ranges, If-Range mismatch and the multi-range fallback.
+ * MockMvc has no sendfile support, so bodies take the transferTo path.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class InvoicePdfDownloadTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private String downloadUrl;
+    private byte[] pdf;
+    private String etag;
+
+    @BeforeEach
+    void placeOrderAndDownload() throws Exception {
+        User user = new User("Pdf Buyer", "pdf-" + System.nanoTime() + "@example.com",
+                "secret", "Billing", "Shipping");
+        Cart cart = new Cart();
+        cart.setUser(user);
+        user.setCart(cart);
+        user = userRepository.save(user);
+        Product product = productService.createProduct(new Product("Pdf product", "Download test", 10.0, 100, "pdf", null));
+        cartService.addItemToCart(user.getCart().getId(), product.getId(), 2);
+        Long orderId = orderService.placeOrder(user.getId(), "COD").getId();
+        mvc.perform(get("/api/invoices/generateInvoice/{orderId}", orderId)).andExpect(status().isOk());
+
+        downloadUrl = "/api/invoices/" + orderId + "/download";
+        MvcResult full = mvc.perform(get(downloadUrl)).andReturn();
+        pdf = full.getResponse().getContentAsByteArray();
+        etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void fullDownload() throws Exception {
+        mvc.perform(get(downloadUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, pdf.length))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoice_"
+                        + downloadUrl.split("/")[3] + ".pdf\""))
+                .andExpect(content().bytes(pdf));
+        assertTrue(new String(pdf, 0, 5).startsWith("%PDF"), "body is a PDF");
+        assertTrue(etag.matches("\"[0-9a-f]{64}\""), "ETag is the quoted content digest: " + etag);
+    }
+
+    @Test
+    void singleRange() throws Exception {
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + pdf.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().bytes(Arrays.copyOfRange(pdf, 10, 20)));
+
+        // Open-ended and suffix ranges
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-" + (pdf.length - 1) + "/" + pdf.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(pdf, 100, pdf.length)));
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + (pdf.length - 5) + "-" + (pdf.length - 1) + "/" + pdf.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(pdf, pdf.length - 5, pdf.length)));
+    }
+
+    @Test
+    void rangeWithMatchingIfRange() throws Exception {
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=0-3").header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/" + pdf.length))
+                .andExpect(content().bytes(Arrays.copyOf(pdf, 4)));
+    }
+
+    @Test
+    void rangeWithStaleIfRangeGetsFullBody() throws Exception {
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=0-3").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(pdf));
+    }
+
+    @Test
+    void notModified() throws Exception {
+        MvcResult result = mvc.perform(get(downloadUrl).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        assertEquals(0, result.getResponse().getContentAsByteArray().length, "304 has no body");
+
+        mvc.perform(get(downloadUrl).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(downloadUrl).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(downloadUrl).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unsatisfiableRange() throws Exception {
+        MvcResult result = mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=" + pdf.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + pdf.length))
+                .andReturn();
+        assertEquals(0, result.getResponse().getContentAsByteArray().length, "416 has no body");
+
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=20-10"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + pdf.length));
+        mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "pages=1-2"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + pdf.length));
+    }
+
+    @Test
+    void multiRangeFallsBackToFullBody() throws Exception {
+        MvcResult result = mvc.perform(get(downloadUrl).header(HttpHeaders.RANGE, "bytes=0-9,20-29"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, pdf.length))
+                .andReturn();
+        assertArrayEquals(pdf, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void previewIsInline() throws Exception {
+        mvc.perform(get(downloadUrl.replace("/download", "/preview")).header(HttpHeaders.RANGE, "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + pdf.length))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"invoice_"
+                        + downloadUrl.split("/")[3] + ".pdf\""));
+    }
+}
@@ -0,0 +1,80 @@
+package com.demo.loadtest;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * 📊 Latency histograms (HdrHistogram, microseconds, 3 significant digits) and error counts
+ * per endpoint or scenario. Recording is wait-free; {@link #reset()} ends the warm-up.
+ */
+public class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static class Series {
+        final Recorder recorder = new Recorder(3);
+        final Histogram total = new Histogram(3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentSkipListMap<>();
+
+    public void record(String label, long nanos, boolean error) {
+        Series s = series.computeIfAbsent(label, key -> new Series());
+        s.recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        if (error) {
+            s.errors.increment();
+        }
+    }
+
+    /**
+     * 🧾 Count a failure by cause (status code, exception, dropped arrival) for the summary.
+     */
+    public void failure(String label, String cause) {
+        failures.computeIfAbsent(label + " -> " + cause, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * ⏹ Discard everything recorded so far (end of warm-up).
+     */
+    public synchronized void reset() {
+        series.values().forEach(s -> {
+            s.recorder.reset();
+            s.total.reset();
+            s.errors.reset();
+        });
+        failures.clear();
+    }
+
+    /**
+     * 🧾 One row per endpoint and scenario; rates are per second of the measured window
+     * (its elapsed time, not the configured duration).
+     */
+    public synchronized void print(PrintStream out, double seconds) {
+        out.printf("%n%-48s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint / scenario (ms)", "count", "errors", "err%", "req/s", "p50", "p90", "p99", "p99.9", "max");
+        new ConcurrentSkipListMap<>(series).forEach((label, s) -> {
+            s.total.add(s.recorder.getIntervalHistogram());
+            long count = s.total.getTotalCount();
+            long errors = s.errors.sum();
+            out.printf("%-48s %9d %7d %6.2f%% %9.1f", label, count, errors,
+                    count == 0 ? 0.0 : 100.0 * errors / count, count / seconds);
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", s.total.getValueAtPercentile(percentile) / 1000.0);
+            }
+            out.printf(" %9.2f%n", s.total.getMaxValue() / 1000.0);
+        });
+        if (!failures.isEmpty()) {
+            out.printf("%nfailures%n");
+            failures.forEach((cause, count) -> out.printf("  %-70s %9d%n", cause, count.sum()));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.demo.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.ECommerceApplication;
+import com.demo.benchmark.DataGenerator;
+
+/**
+ * Load generator for the REST API on one box: boots the application on a random port
+ * against the in-memory H2 database of the test profile, seeds it with {@link DataGenerator}
+ * (users are inserted verified, so no OTP round trip), then starts scenarios as an open model
+ * with Poisson arrivals at {@code --rate} per second, executed by {@code --concurrency} workers.
+ * Scenario latency is measured from the intended arrival time, so queueing behind a slow
+ * server is included rather than hidden (no coordinated omission). Warm-up requests finish
+ * before the measured window starts, and throughput is divided by the window's measured length.
+ * <p>
+ * Run with {@code mvn -Pload-test verify -Dload.args="--rate=100 --duration=120"}. Options
+ * (defaults): users (1000), products (5000), ordersPerUser (5), rate (50), concurrency (64),
+ * warmup (10 s), duration (60 s), mix (browse:60,cart:25,checkout:10,invoice:5). Any other
+ * {@code --key=value} is passed to the application, e.g. {@code --admission.enabled=true}.
+ */
+public class LoadGenerator {
+
+    record Options(int users, int products, int ordersPerUser, double rate, int concurrency,
+                   int warmupSeconds, int durationSeconds, Map<LoadScenario, Integer> mix, String[] applicationArgs) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>(Map.of(
+                    "users", "1000", "products", "5000", "ordersPerUser", "5", "rate", "50",
+                    "concurrency", "64", "warmup", "10", "duration", "60",
+                    "mix", "browse:60,cart:25,checkout:10,invoice:5"));
+            List<String> applicationArgs = new ArrayList<>();
+            for (String arg : args) {
+                String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+                if (pair.length == 2 && values.containsKey(pair[0])) {
+                    values.put(pair[0], pair[1]);
+                } else {
+                    applicationArgs.add(arg);
+                }
+            }
+
+            Map<LoadScenario, Integer> mix = new EnumMap<>(LoadScenario.class);
+            for (String entry : values.get("mix").split(",")) {
+                String[] weight = entry.split(":");
+                mix.put(LoadScenario.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+            }
+            Options options = new Options(
+                    Integer.parseInt(values.get("users")),
+                    Integer.parseInt(values.get("products")),
+                    Integer.parseInt(values.get("ordersPerUser")),
+                    Double.parseDouble(values.get("rate")),
+                    Integer.parseInt(values.get("concurrency")),
+                    Integer.parseInt(values.get("warmup")),
+                    Integer.parseInt(values.get("duration")),
+                    mix,
+                    applicationArgs.toArray(String[]::new));
+            if (options.rate() <= 0 || options.concurrency() <= 0 || options.users() < options.concurrency()) {
+                throw new IllegalArgumentException("rate and concurrency must be positive and users >= concurrency");
+            }
+            return options;
+        }
+
+        LoadScenario pickScenario() {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            int ticket = ThreadLocalRandom.current().nextInt(total);
+            for (Map.Entry<LoadScenario, Integer> entry : mix.entrySet()) {
+                ticket -= entry.getValue();
+                if (ticket < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty scenario mix");
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = Options.parse(args);
+        // DevTools would relaunch main() in a restart class loader with the application args only
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ECommerceApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "logging.level.com.demo=WARN",
+                        "spring.main.banner-mode=off")
+                .run(options.applicationArgs());
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            long seedStart = System.nanoTime();
+            DataGenerator.Dataset data = new DataGenerator(context)
+                    .seed(options.products(), options.users(), options.ordersPerUser(), 5);
+            System.out.printf("Seeded %d products, %d users with carts, %d orders in %d ms; target http://localhost:%d%n",
+                    data.productIds().size(), data.userIds().size(), data.orderIds().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart), port);
+
+            LatencyReport report = new LatencyReport();
+            double measuredSeconds = run(options, data, report, "http://localhost:" + port);
+            report.print(System.out, measuredSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    // Warm-up, then the measured window; returns the measured seconds, last response included
+    private static double run(Options options, DataGenerator.Dataset data, LatencyReport report, String baseUrl)
+            throws InterruptedException {
+        ShopClient client = new ShopClient(baseUrl, report);
+
+        // Idle customers; a session takes one for its whole journey
+        List<LoadScenario.Customer> customers = new ArrayList<>();
+        for (int i = 0; i < data.userIds().size(); i++) {
+            customers.add(new LoadScenario.Customer(data.userIds().get(i), data.cartIds().get(i)));
+        }
+        Collections.shuffle(customers);
+        Queue<LoadScenario.Customer> idle = new ConcurrentLinkedQueue<>(customers);
+
+        System.out.printf("Running %.1f arrivals/s on %d workers: %d s warm-up, %d s measured, mix %s%n",
+                options.rate(), options.concurrency(), options.warmupSeconds(), options.durationSeconds(), options.mix());
+        // Warm-up requests still in flight would land in the measured histograms: drain them before the reset
+        arrivals(options, data, client, idle, report, options.warmupSeconds());
+        report.reset();
+
+        long start = System.nanoTime();
+        arrivals(options, data, client, idle, report, options.durationSeconds());
+        double measuredSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Measured window: %.1f s (%d s of arrivals plus the drain of the last responses)%n",
+                measuredSeconds, options.durationSeconds());
+        return measuredSeconds;
+    }
+
+    // Poisson arrivals for the given seconds; returns once every arrival has completed
+    private static void arrivals(Options options, DataGenerator.Dataset data, ShopClient client,
+                                 Queue<LoadScenario.Customer> idle, LatencyReport report, int seconds)
+            throws InterruptedException {
+        // Bounded backlog: arrivals beyond it are dropped and reported instead of queueing without limit
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(options.concurrency(), options.concurrency(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(options.concurrency() * 10));
+        workers.prestartAllCoreThreads();
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (long next = start; next < end; next += interarrival(options.rate())) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            LoadScenario scenario = options.pickScenario();
+            String label = "scenario " + scenario.name().toLowerCase(Locale.ROOT);
+            long intended = next;
+            try {
+                workers.execute(() -> {
+                    LoadScenario.Customer customer = idle.poll();
+                    if (customer == null) {
+                        report.failure(label, "no idle customer");
+                        return;
+                    }
+                    boolean ok = false;
+                    try {
+                        ok = scenario.run(client, customer, data);
+                    } catch (RuntimeException e) {
+                        report.failure(label, e.getClass().getSimpleName());
+                    } finally {
+                        idle.offer(customer);
+                        report.record(label, System.nanoTime() - intended, !ok);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                report.failure(label, "dropped (backlog full)");
+            }
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            workers.shutdownNow();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Exponentially distributed gap between arrivals, i.e. a Poisson process at the given rate
+    private static long interarrival(double perSecond) {
+        return (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) / perSecond * 1e9);
+    }
+}
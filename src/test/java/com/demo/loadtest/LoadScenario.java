@@ -0,0 +1,68 @@
+package com.demo.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.demo.benchmark.DataGenerator;
+
+/**
+ * 🛒 User journeys driven against the REST API. Each one runs as a single customer, who is
+ * never in two journeys at once, so carts are not shared between concurrent sessions.
+ */
+public enum LoadScenario {
+
+    // Catalogue pages and a couple of product details
+    BROWSE {
+        @Override
+        boolean run(ShopClient client, Customer customer, DataGenerator.Dataset data) {
+            String category = pick(DataGenerator.CATEGORIES);
+            return client.get("/api/products?size=20")
+                    & client.get("/api/products?size=20&sort=price&category={category}", category)
+                    & client.get("/api/products/{id}", pick(data.productIds()))
+                    & client.get("/api/products/{id}", pick(data.productIds()));
+        }
+    },
+
+    // Look at a product, add it, view the cart
+    CART {
+        @Override
+        boolean run(ShopClient client, Customer customer, DataGenerator.Dataset data) {
+            Long productId = pick(data.productIds());
+            return client.get("/api/products/{id}", productId)
+                    && client.post("/api/carts/{cartId}/add/{productId}?quantity=1", customer.cartId(), productId)
+                    && client.get("/api/carts/{cartId}", customer.cartId());
+        }
+    },
+
+    // Add one to three products and place the order
+    CHECKOUT {
+        @Override
+        boolean run(ShopClient client, Customer customer, DataGenerator.Dataset data) {
+            int lines = 1 + ThreadLocalRandom.current().nextInt(3);
+            for (int i = 0; i < lines; i++) {
+                if (!client.post("/api/carts/{cartId}/add/{productId}?quantity=1", customer.cartId(), pick(data.productIds()))) {
+                    return false;
+                }
+            }
+            return client.post("/orders/place?userId={userId}&paymentMethod=UPI", customer.userId());
+        }
+    },
+
+    // Invoice of a past order, generated on first request, then downloaded
+    INVOICE {
+        @Override
+        boolean run(ShopClient client, Customer customer, DataGenerator.Dataset data) {
+            Long orderId = pick(data.orderIds());
+            return client.get("/api/invoices/generateInvoice/{orderId}", orderId)
+                    && client.get("/api/invoices/{orderId}/download", orderId);
+        }
+    };
+
+    public record Customer(Long userId, Long cartId) {}
+
+    abstract boolean run(ShopClient client, Customer customer, DataGenerator.Dataset data);
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP calls against the shop's REST API. Every call is timed under its route template,
+ * so /api/products/17 and /api/products/42 land in the same histogram.
+ */
+public class ShopClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final LatencyReport report;
+
+    public ShopClient(String baseUrl, LatencyReport report) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    public boolean get(String route, Object... pathAndQuery) {
+        return send("GET", route, pathAndQuery);
+    }
+
+    public boolean post(String route, Object... pathAndQuery) {
+        return send("POST", route, pathAndQuery);
+    }
+
+    /**
+     * ✅ Fill the route's {@code {placeholders}} (path or query) in order. Returns whether the
+     * call answered 2xx; failures are recorded, not thrown.
+     */
+    private boolean send(String method, String route, Object... pathAndQuery) {
+        String label = method + " " + route.replaceAll("\\?.*", "");
+        String path = route;
+        for (Object value : pathAndQuery) {
+            path = path.replaceFirst("\\{[^}]+}", String.valueOf(value));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            boolean ok = response.statusCode() / 100 == 2;
+            report.record(label, System.nanoTime() - start, !ok);
+            if (!ok) {
+                report.failure(label, "HTTP " + response.statusCode());
+            }
+            return ok;
+        } catch (IOException e) {
+            report.record(label, System.nanoTime() - start, true);
+            report.failure(label, e.getClass().getSimpleName());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.querybudget;
+
+import static com.demo.sql.QueryBudget.assertAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+
+import com.demo.entity.CartItem;
+import com.demo.entity.Product;
+import com.demo.entity.User;
+
+/**
+ * Query budgets of the /api/carts endpoints on a 20-line cart.
+ */
+class CartQueryBudgetTests extends QueryBudgetTestSupport {
+
+    @Test
+    void getCart() throws Exception {
+        User user = newUser();
+        fillCart(user, 20);
+        Long cartId = user.getCart().getId();
+
+        assertAtMost(2, "GET cart with 20 lines", () ->
+                mvc.perform(get("/api/carts/{cartId}", cartId)).andExpect(status().isOk()));
+        assertAtMost(1, "GET cart header fields only", () ->
+                mvc.perform(get("/api/carts/{cartId}", cartId).param("fields", "id,userId")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void addItem() throws Exception {
+        User user = newUser();
+        fillCart(user, 19);
+        Long cartId = user.getCart().getId();
+        Product product = newProduct();
+
+        assertAtMost(7, "add a 20th line to a cart", () ->
+                mvc.perform(post("/api/carts/{cartId}/add/{productId}", cartId, product.getId()).param("quantity", "1"))
+                        .andExpect(status().isOk()));
+        // Includes the authoritative stock read behind the hold (inventory row plus slots, one query)
+        assertAtMost(5, "raise the quantity of an existing cart line", () ->
+                mvc.perform(post("/api/carts/{cartId}/add/{productId}", cartId, product.getId()).param("quantity", "1"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void removeItem() throws Exception {
+        User user = newUser();
+        fillCart(user, 20);
+        Long cartId = user.getCart().getId();
+        CartItem item = cartService.getCart(cartId).getItems().get(0);
+
+        assertAtMost(4, "remove a line from a 20-line cart", () ->
+                mvc.perform(delete("/api/carts/{cartId}/remove/{itemId}", cartId, item.getId()))
+                        .andExpect(status().isOk()));
+    }
+}
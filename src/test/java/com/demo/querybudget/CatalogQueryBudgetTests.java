@@ -0,0 +1,147 @@
+package com.demo.querybudget;
+
+import static com.demo.sql.QueryBudget.assertAtMost;
+import static com.demo.sql.QueryBudget.assertExactly;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import com.demo.entity.Product;
+import com.demo.entity.User;
+import com.demo.otp.OtpStore;
+
+/**
+ * Query budgets of the product, inventory, user, mail and event endpoints.
+ */
+class CatalogQueryBudgetTests extends QueryBudgetTestSupport {
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Test
+    void products() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            newProduct();
+        }
+        Product product = newProduct();
+        mvc.perform(get("/api/products/{id}", product.getId())).andExpect(status().isOk());
+
+        assertExactly(0, "GET product already in the cache", () ->
+                mvc.perform(get("/api/products/{id}", product.getId())).andExpect(status().isOk()));
+        assertAtMost(1, "first product page", () ->
+                mvc.perform(get("/api/products").param("size", "20")).andExpect(status().isOk()));
+        assertAtMost(1, "product page by category and price", () ->
+                mvc.perform(get("/api/products").param("category", "budget").param("minPrice", "5")
+                        .param("sort", "price")).andExpect(status().isOk()));
+        assertAtMost(2, "create a product", () ->
+                mvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Created\",\"description\":\"d\",\"price\":3.5,\"stock\":10,\"category\":\"budget\"}"))
+                        .andExpect(status().isCreated()));
+        assertAtMost(3, "update a product", () ->
+                mvc.perform(put("/api/products/{id}", product.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Updated\",\"description\":\"d\",\"price\":12.0,\"stock\":100000,\"category\":\"budget\"}"))
+                        .andExpect(status().isOk()));
+        assertAtMost(3, "rename a product", () ->
+                mvc.perform(patch("/api/products/{id}/name", product.getId()).content("Renamed"))
+                        .andExpect(status().isOk()));
+        assertExactly(0, "product cache stats", () ->
+                mvc.perform(get("/api/products/cache/stats")).andExpect(status().isOk()));
+
+        // Product, order-item reference check, inventory row (slot count, then the row), inventory update, delete
+        Product unused = newProduct();
+        assertAtMost(6, "delete a product", () ->
+                mvc.perform(delete("/api/products/{id}", unused.getId())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void inventory() throws Exception {
+        Product product = newProduct();
+
+        assertAtMost(1, "low-stock listing", () ->
+                mvc.perform(get("/api/inventory/low-stock")).andExpect(status().isOk()));
+        assertAtMost(2, "available quantity", () ->
+                mvc.perform(get("/api/inventory/{productId}/available", product.getId())).andExpect(status().isOk()));
+        assertAtMost(2, "stock validation", () ->
+                mvc.perform(get("/api/inventory/validate").param("productId", product.getId().toString())
+                        .param("quantity", "1")).andExpect(status().isOk()));
+
+        // Two lines: guarded decrement and stock re-read per line, then the outbox events in one batch
+        Product other = newProduct();
+        String order = "{\"id\":1,\"orderItems\":[{\"product\":{\"id\":" + product.getId() + "},\"quantity\":2},"
+                + "{\"product\":{\"id\":" + other.getId() + "},\"quantity\":1}]}";
+        mvc.perform(post("/api/inventory/deduct").contentType(MediaType.APPLICATION_JSON).content(order))
+                .andExpect(status().isOk());
+        assertAtMost(5, "deduct stock for a 2-line order", () ->
+                mvc.perform(post("/api/inventory/deduct").contentType(MediaType.APPLICATION_JSON).content(order))
+                        .andExpect(status().isOk()));
+        assertAtMost(3, "restore stock for a 2-line order", () ->
+                mvc.perform(post("/api/inventory/restore").contentType(MediaType.APPLICATION_JSON).content(order))
+                        .andExpect(status().isOk()));
+
+        // Lock inventory row and slots, drop old slots, insert the new slots in one batch, update the row
+        mvc.perform(post("/api/inventory/{productId}/shards", other.getId()).param("slots", "2")).andExpect(status().isOk());
+        assertAtMost(5, "shard a product's stock across 4 slots", () ->
+                mvc.perform(post("/api/inventory/{productId}/shards", product.getId()).param("slots", "4"))
+                        .andExpect(status().isOk()));
+        assertAtMost(4, "fold a product's slots back into its inventory row", () ->
+                mvc.perform(delete("/api/inventory/{productId}/shards", product.getId())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void users() throws Exception {
+        User user = newUser();
+        newUser();
+
+        assertAtMost(1, "GET user", () ->
+                mvc.perform(get("/api/users/{id}", user.getId())).andExpect(status().isOk()));
+        assertAtMost(1, "GET all users", () ->
+                mvc.perform(get("/api/users")).andExpect(status().isOk()));
+        assertAtMost(2, "update a user", () ->
+                mvc.perform(put("/api/users/{id}", user.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed\",\"email\":\"" + user.getEmail() + "\",\"password\":\"pw\","
+                                + "\"billingAddress\":\"b\",\"shippingAddress\":\"s\"}"))
+                        .andExpect(status().isOk()));
+        // Existence check, user with cart, cart items, orders, then the cart and user deletes
+        User leaving = newUser();
+        assertAtMost(6, "delete a user without orders", () ->
+                mvc.perform(delete("/api/users/{id}", leaving.getId())).andExpect(status().isOk()));
+        mvc.perform(post("/api/users/registerEmail").param("email", "otp-warm-up@example.com")).andExpect(status().isOk());
+        // Email check and the queued mail insert (queue depth is an in-memory estimate); the OTP itself stays in memory
+        assertAtMost(2, "OTP request", () ->
+                mvc.perform(post("/api/users/registerEmail").param("email", "otp-budget@example.com"))
+                        .andExpect(status().isOk()));
+        assertAtMost(2, "repeat OTP request for the same email", () ->
+                mvc.perform(post("/api/users/registerEmail").param("email", "otp-budget@example.com"))
+                        .andExpect(status().isOk()));
+
+        otpStore.put("register-budget@example.com", "123456", Duration.ofMinutes(5));
+        assertAtMost(3, "register with a valid OTP", () ->
+                mvc.perform(post("/api/users/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"R\",\"email\":\"register-budget@example.com\",\"password\":\"pw\","
+                                + "\"billingAddress\":\"b\",\"shippingAddress\":\"s\",\"otp\":\"123456\"}"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void events() throws Exception {
+        assertAtMost(2, "outbox stats (pending and failed counts)", () ->
+                mvc.perform(get("/api/events/stats")).andExpect(status().isOk()));
+        assertExactly(0, "read a topic of the embedded broker", () ->
+                mvc.perform(get("/api/events/{topic}", "inventory.events")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void mailStats() throws Exception {
+        assertExactly(1, "mail queue stats (pending count only)", () ->
+                mvc.perform(get("/api/mail/stats")).andExpect(status().isOk()));
+    }
+}
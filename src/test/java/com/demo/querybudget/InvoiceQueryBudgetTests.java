@@ -0,0 +1,115 @@
+package com.demo.querybudget;
+
+import static com.demo.sql.QueryBudget.assertAtMost;
+import static com.demo.sql.QueryBudget.assertExactly;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.demo.entity.User;
+import com.demo.repository.InvoiceRepository;
+import com.demo.service.InvoiceBatchService;
+import com.demo.service.InvoicePdfStore;
+import com.demo.sql.SqlRecording;
+
+/**
+ * Query budgets of the /api/invoices endpoints for a 20-line order: first request
+ * (invoice created, PDF rendered) and repeat requests served from what is stored.
+ * The export is budgeted per page, and the batch job by what its endpoints run on the
+ * request thread (its workers generate invoices through the same service calls).
+ */
+class InvoiceQueryBudgetTests extends QueryBudgetTestSupport {
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoicePdfStore invoicePdfStore;
+
+    @Test
+    void generateInvoice() throws Exception {
+        User user = newUser();
+        Long warmUp = placedOrder(user, 1).getId();
+        mvc.perform(get("/api/invoices/generateInvoice/{orderId}", warmUp)).andExpect(status().isOk());
+        Long orderId = placedOrder(user, 20).getId();
+
+        assertAtMost(6, "first invoice request for a 20-line order", () ->
+                mvc.perform(get("/api/invoices/generateInvoice/{orderId}", orderId)).andExpect(status().isOk()));
+        assertAtMost(3, "repeat invoice request for a 20-line order", () ->
+                mvc.perform(get("/api/invoices/generateInvoice/{orderId}", orderId)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void downloadInvoice() throws Exception {
+        User user = newUser();
+        Long warmUp = placedOrder(user, 1).getId();
+        mvc.perform(get("/api/invoices/generateInvoice/{orderId}", warmUp)).andExpect(status().isOk());
+        mvc.perform(get("/api/invoices/{orderId}/download", warmUp)).andExpect(status().isOk());
+        Long orderId = placedOrder(user, 20).getId();
+        mvc.perform(get("/api/invoices/generateInvoice/{orderId}", orderId)).andExpect(status().isOk());
+
+        // Rendering on first download writes the file only: downloads never write rows
+        SqlRecording first = assertAtMost(2, "first PDF download of a 20-line order", () ->
+                mvc.perform(get("/api/invoices/{orderId}/download", orderId)).andExpect(status().isOk()));
+        assertEquals(0, first.inserts() + first.updates() + first.deletes(), "writes on PDF download" + first.describe());
+        // ...into the file the invoice recorded when it was created, so the sweep keeps it
+        assertTrue(invoicePdfStore.exists(invoiceRepository.findByOrderId(orderId).orElseThrow().getFilePath()),
+                "rendered PDF is the one the invoice records");
+        assertAtMost(2, "repeat PDF download of a 20-line order", () ->
+                mvc.perform(get("/api/invoices/{orderId}/download", orderId)).andExpect(status().isOk()));
+        assertAtMost(2, "PDF preview of a 20-line order", () ->
+                mvc.perform(get("/api/invoices/{orderId}/preview", orderId)).andExpect(status().isOk()));
+    }
+
+    @Test
+    void exportInvoices() throws Exception {
+        User first = null;
+        for (int i = 0; i < 4; i++) {
+            User user = newUser();
+            for (int n = 0; n < 2; n++) {
+                Long orderId = placedOrder(user, 3).getId();
+                mvc.perform(get("/api/invoices/generateInvoice/{orderId}", orderId)).andExpect(status().isOk());
+            }
+            first = first == null ? user : first;
+        }
+        Long userId = first.getId();
+
+        // One page: ids, invoices with user, cart, order and items, then the empty next page
+        assertAtMost(3, "ZIP export of one user's invoices", () ->
+                mvc.perform(get("/api/invoices/export").param("userId", userId.toString())).andExpect(status().isOk()));
+        assertAtMost(3, "ZIP export of a day's invoices across users", () ->
+                mvc.perform(get("/api/invoices/export").param("from", LocalDate.now().toString())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void invoiceBatch() throws Exception {
+        placedOrder(newUser(), 2);
+
+        assertAtMost(2, "start the invoice batch job", () ->
+                mvc.perform(post("/api/invoices/batch").param("resume", "false")).andExpect(status().isAccepted()));
+        assertExactly(0, "invoice batch progress", () ->
+                mvc.perform(get("/api/invoices/batch")).andExpect(status().isOk()));
+        assertExactly(0, "stop the invoice batch job", () ->
+                mvc.perform(post("/api/invoices/batch/stop")).andExpect(status().isOk()));
+
+        // Let the job wind down so it does not generate invoices under the other budget tests
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (isActive(invoiceBatchService.getStatus().get("state")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static boolean isActive(Object state) {
+        return state == InvoiceBatchService.State.RUNNING || state == InvoiceBatchService.State.STOPPING;
+    }
+}
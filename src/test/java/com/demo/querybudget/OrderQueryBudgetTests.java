@@ -0,0 +1,174 @@
+package com.demo.querybudget;
+
+import static com.demo.sql.QueryBudget.assertAtMost;
+import static com.demo.sql.QueryBudget.assertExactly;
+import static com.demo.sql.QueryBudget.record;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.entity.Product;
+import com.demo.entity.User;
+import com.demo.service.OrderPlacementService;
+import com.demo.sql.SqlRecording;
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Query budgets of the /orders endpoints. Checkout issues one guarded stock UPDATE per
+ * distinct product, so its budget is a fixed part plus one statement per cart line;
+ * its order item inserts and cart item deletes are JDBC batches whatever the line count.
+ */
+class OrderQueryBudgetTests extends QueryBudgetTestSupport {
+
+    // User, cart with items, order insert, batched item insert, outbox insert, order total update,
+    // batched cart item delete, and the order summary (order + items) returned to the client
+    private static final int CHECKOUT_FIXED = 9;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Test
+    void placeOrder() throws Exception {
+        User user = newUser();
+        List<Product> products = newProducts(20);
+        fillCart(user, products);
+        orderService.placeOrder(user.getId(), "COD"); // warm-up
+        fillCart(user, products);
+
+        assertAtMost(CHECKOUT_FIXED + 20, "placeOrder with 20 cart lines", () ->
+                mvc.perform(post("/orders/place").param("userId", user.getId().toString()).param("paymentMethod", "COD"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void placeOrderBatchesLineWrites() throws Exception {
+        User user = newUser();
+        List<Product> products = newProducts(50);
+        fillCart(user, products);
+        orderService.placeOrder(user.getId(), "COD"); // warm-up
+
+        fillCart(user, products);
+        SqlRecording unbatched = record(() -> placeOrder(user, 1));
+        fillCart(user, products);
+        SqlRecording batched = assertAtMost(CHECKOUT_FIXED + 50, "placeOrder with 50 cart lines", () ->
+                placeOrder(user, null));
+
+        // 50 order item inserts and 50 cart item deletes each go out as a single JDBC batch
+        assertTrue(unbatched.statements() - batched.statements() >= 2 * 49,
+                "expected batching to save at least 98 round trips, unbatched " + unbatched.statements()
+                        + " vs batched " + batched.statements() + batched.describe());
+    }
+
+    @Test
+    void placeOrderWithIdempotencyKey() throws Exception {
+        User user = newUser();
+        List<Product> products = newProducts(5);
+        fillCart(user, products);
+        orderService.placeOrder(user.getId(), "COD"); // warm-up
+        fillCart(user, products);
+
+        // + idempotency key insert and completion
+        assertAtMost(CHECKOUT_FIXED + 2 + 5, "placeOrder with 5 cart lines and an Idempotency-Key", () ->
+                mvc.perform(post("/orders/place").param("userId", user.getId().toString()).param("paymentMethod", "COD")
+                        .header("Idempotency-Key", "budget-" + user.getId()))
+                        .andExpect(status().isOk()));
+        assertAtMost(3, "replay of a completed Idempotency-Key", () ->
+                mvc.perform(post("/orders/place").param("userId", user.getId().toString()).param("paymentMethod", "COD")
+                        .header("Idempotency-Key", "budget-" + user.getId()))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void placeOrderAsync() throws Exception {
+        User user = newUser();
+        fillCart(user, 5);
+        String[] ticketId = new String[1];
+
+        // Request thread validates and queues only; the checkout itself is the placeOrder budget, on a worker
+        assertAtMost(2, "queue an order for async placement", () -> {
+            String body = mvc.perform(post("/orders/place/async").param("userId", user.getId().toString())
+                            .param("paymentMethod", "COD"))
+                    .andExpect(status().isAccepted()).andReturn().getResponse().getContentAsString();
+            ticketId[0] = JsonPath.read(body, "$.ticketId");
+        });
+        assertExactly(0, "poll an order ticket", () ->
+                mvc.perform(get("/orders/tickets/{ticketId}", ticketId[0])).andExpect(status().isOk()));
+        assertExactly(0, "order queue stats", () ->
+                mvc.perform(get("/orders/queue/stats")).andExpect(status().isOk()));
+
+        orderPlacementService.whenDone(ticketId[0]).orElseThrow().get(30, TimeUnit.SECONDS);
+    }
+
+    // Checkout in a session with the given JDBC batch size (null = configured hibernate.jdbc.batch_size)
+    private void placeOrder(User user, Integer jdbcBatchSize) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            orderService.placeOrder(user.getId(), "COD");
+        });
+    }
+
+    @Test
+    void orderHistory() throws Exception {
+        User user = newUser();
+        for (int i = 0; i < 10; i++) {
+            placedOrder(user, 3);
+        }
+
+        assertAtMost(2, "history page of 10 orders with items", () ->
+                mvc.perform(get("/orders/user/{userId}", user.getId())).andExpect(status().isOk()));
+        assertAtMost(1, "history page of 10 orders without items", () ->
+                mvc.perform(get("/orders/user/{userId}", user.getId()).param("fields", "orders.id,orders.status,nextCursor"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void updateStatus() throws Exception {
+        User user = newUser();
+        Long orderId = placedOrder(user, 20).getId();
+
+        assertAtMost(5, "status change of a 20-line order", () ->
+                mvc.perform(put("/orders/{orderId}/status", orderId).param("status", "SHIPPED")).andExpect(status().isOk()));
+        assertAtMost(6, "delivery of a 20-line order", () ->
+                mvc.perform(put("/orders/{orderId}/status", orderId).param("status", "DELIVERED")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void updateStatusBulk() throws Exception {
+        User user = newUser();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orderIds.add(placedOrder(user, 2).getId());
+        }
+        String body = orderIds.toString();
+
+        String[] response = new String[1];
+        SqlRecording recording = assertAtMost(4, "bulk delivery of 20 orders", () ->
+                response[0] = mvc.perform(put("/orders/status/bulk").param("status", "DELIVERED")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        // The per-batch count reported to the client comes from the Hibernate session and matches the JDBC view
+        assertEquals(recording.statements(), ((Number) JsonPath.read(response[0], "$.statements")).intValue(),
+                "reported statements" + recording.describe());
+    }
+}
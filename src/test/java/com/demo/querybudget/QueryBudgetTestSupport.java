@@ -0,0 +1,90 @@
+package com.demo.querybudget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demo.entity.Cart;
+import com.demo.entity.Order;
+import com.demo.entity.Product;
+import com.demo.entity.User;
+import com.demo.repository.UserRepository;
+import com.demo.service.CartService;
+import com.demo.service.OrderService;
+import com.demo.service.ProductService;
+import com.demo.sql.SqlCountingConfiguration;
+
+/**
+ * Shared context for the query budget tests: embedded database, counting DataSource and
+ * MockMvc, so a request is served on the test thread and all of its SQL is recorded.
+ * Each test seeds its own user and products; budgets are asserted after one warm-up
+ * call, so id blocks and invoice number blocks are already reserved.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SqlCountingConfiguration.class)
+abstract class QueryBudgetTestSupport {
+
+    @Autowired
+    protected MockMvc mvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ProductService productService;
+
+    @Autowired
+    protected CartService cartService;
+
+    @Autowired
+    protected OrderService orderService;
+
+    private static int sequence;
+
+    protected User newUser() {
+        int n = ++sequence;
+        User user = new User("Budget " + n, "budget" + n + "-" + System.nanoTime() + "@example.com",
+                "secret", "Billing " + n, "Shipping " + n);
+        Cart cart = new Cart();
+        cart.setUser(user);
+        user.setCart(cart);
+        return userRepository.save(user);
+    }
+
+    protected Product newProduct() {
+        int n = ++sequence;
+        return productService.createProduct(new Product("Product " + n, "Budget product", 10.0, 100_000, "budget", null));
+    }
+
+    protected List<Product> newProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(newProduct());
+        }
+        return products;
+    }
+
+    // Cart with the given number of distinct, new product lines
+    protected void fillCart(User user, int lines) {
+        fillCart(user, newProducts(lines));
+    }
+
+    protected void fillCart(User user, List<Product> products) {
+        for (Product product : products) {
+            cartService.addItemToCart(user.getCart().getId(), product.getId(), 2);
+        }
+    }
+
+    protected Order placedOrder(User user, int lines) {
+        fillCart(user, lines);
+        return orderService.placeOrder(user.getId(), "COD");
+    }
+}
@@ -0,0 +1,69 @@
+package com.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Invoice numbers handed out concurrently on one node: unique, increasing per thread and,
+ * with no restart in between, gap-free across block refills.
+ */
+@SpringBootTest(properties = "invoice.number.block-size=100")
+@ActiveProfiles("test")
+class InvoiceNumberAllocatorTests {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 2_000;
+
+    @Autowired
+    private InvoiceNumberAllocator allocator;
+
+    @Test
+    void concurrentNumbersAreUniqueAndGapFree() throws Exception {
+        LocalDate day = LocalDate.of(2001, 1, 1); // a day no other test numbers invoices on
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    List<String> numbers = new ArrayList<>(PER_THREAD);
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        numbers.add(allocator.next(day));
+                    }
+                    return numbers;
+                }));
+            }
+
+            TreeSet<Long> values = new TreeSet<>();
+            for (Future<List<String>> result : results) {
+                List<String> numbers = result.get();
+                for (int i = 1; i < numbers.size(); i++) {
+                    assertTrue(numbers.get(i).compareTo(numbers.get(i - 1)) > 0,
+                            "numbers go backwards on one thread: " + numbers.get(i - 1) + " -> " + numbers.get(i));
+                }
+                for (String number : numbers) {
+                    assertTrue(number.startsWith("INV-20010101-"), number);
+                    values.add(Long.parseLong(number.substring("INV-20010101-".length())));
+                }
+            }
+
+            assertEquals(THREADS * PER_THREAD, values.size(), "duplicate invoice numbers");
+            assertEquals(1L, values.first());
+            assertEquals((long) THREADS * PER_THREAD, values.last(), "gap in invoice numbers");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
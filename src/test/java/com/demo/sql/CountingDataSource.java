@@ -0,0 +1,112 @@
+package com.demo.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource proxy that reports every statement execution to the {@link SqlRecording}
+ * active on the executing thread. Connections and statements handed out are JDK proxies
+ * over the pooled originals; an executeBatch counts as one round trip carrying its rows.
+ */
+public final class CountingDataSource {
+
+    private CountingDataSource() {}
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection connection ? connection(connection) : result);
+    }
+
+    private static Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (result instanceof CallableStatement statement) {
+                return statement(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return statement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return statement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S statement(Class<S> type, S statement, String preparedSql) {
+        Batch batch = new Batch();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (isObjectMethod(method, args)) {
+                return objectMethod(proxy, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            switch (method.getName()) {
+                case "addBatch" -> batch.add(sql);
+                case "clearBatch" -> batch.clear();
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" -> SqlRecording.executed(sql, 1);
+                case "executeBatch", "executeLargeBatch" -> {
+                    SqlRecording.executed(batch.sql != null ? batch.sql : preparedSql, batch.rows);
+                    batch.clear();
+                }
+                default -> { }
+            }
+            return invoke(statement, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    // Rows queued since the last executeBatch (plain statements batch their own SQL text)
+    private static final class Batch {
+        String sql;
+        int rows;
+
+        void add(String text) {
+            if (sql == null) {
+                sql = text;
+            }
+            rows++;
+        }
+
+        void clear() {
+            sql = null;
+            rows = 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultMapper {
+        Object map(Method method, Object[] args, Object result) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+        InvocationHandler handler = (proxy, method, args) -> isObjectMethod(method, args)
+                ? objectMethod(proxy, method, args)
+                : mapper.map(method, args, invoke(target, method, args));
+        return type.cast(Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    // equals/hashCode by proxy identity, so pools and caches keyed on the wrapper behave
+    private static boolean isObjectMethod(Method method, Object[] args) {
+        return (method.getName().equals("equals") && args != null && args.length == 1)
+                || (method.getName().equals("hashCode") && (args == null || args.length == 0));
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.demo.sql;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Assertions on the number of SQL round trips a unit of work executes on the calling thread,
+ * e.g. {@code QueryBudget.assertAtMost(9, "placeOrder with 20 cart lines", () -> ...)}.
+ * Needs the DataSource wrapped by {@link SqlCountingConfiguration}.
+ */
+public final class QueryBudget {
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    private QueryBudget() {}
+
+    // 🔍 Run the work and return the statements it executed
+    public static SqlRecording record(Work work) throws Exception {
+        try (SqlRecording recording = SqlRecording.start()) {
+            work.run();
+            return recording;
+        }
+    }
+
+    // ✅ Fail with the statement listing when the work executes more than max statements
+    public static SqlRecording assertAtMost(int max, String useCase, Work work) throws Exception {
+        SqlRecording recording = record(work);
+        if (recording.statements() > max) {
+            fail(useCase + ": expected at most " + max + " statements but executed "
+                    + recording.statements() + recording.describe());
+        }
+        return recording;
+    }
+
+    // ✅ Fail unless the work executes exactly the expected statements (cache hits, no-op paths)
+    public static SqlRecording assertExactly(int expected, String useCase, Work work) throws Exception {
+        SqlRecording recording = record(work);
+        if (recording.statements() != expected) {
+            fail(useCase + ": expected " + expected + " statements but executed "
+                    + recording.statements() + recording.describe());
+        }
+        return recording;
+    }
+}
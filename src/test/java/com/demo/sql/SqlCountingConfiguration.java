@@ -0,0 +1,25 @@
+package com.demo.sql;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Wraps the application DataSource in a {@link CountingDataSource}; import it into a
+ * test context to use {@link QueryBudget}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlCountingConfiguration {
+
+    @Bean
+    static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? CountingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Statements executed on one thread between {@link #start()} and {@link #close()},
+ * as reported by {@link CountingDataSource}. Work on other threads (schedulers,
+ * mail workers, async order placement) is not attributed to the recording.
+ */
+public final class SqlRecording implements AutoCloseable {
+
+    private static final ThreadLocal<SqlRecording> ACTIVE = new ThreadLocal<>();
+
+    // One entry per round trip to the database
+    public record Execution(String sql, int batchedRows) {
+
+        public String verb() {
+            String text = sql == null ? "" : sql.stripLeading();
+            int end = 0;
+            while (end < text.length() && Character.isLetter(text.charAt(end))) {
+                end++;
+            }
+            return text.substring(0, end).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final List<Execution> executions = new ArrayList<>();
+
+    private SqlRecording() {}
+
+    // ✅ Start recording statements executed on the current thread
+    public static SqlRecording start() {
+        if (ACTIVE.get() != null) {
+            throw new IllegalStateException("A SQL recording is already active on this thread");
+        }
+        SqlRecording recording = new SqlRecording();
+        ACTIVE.set(recording);
+        return recording;
+    }
+
+    static void executed(String sql, int batchedRows) {
+        SqlRecording recording = ACTIVE.get();
+        if (recording != null) {
+            recording.executions.add(new Execution(sql, batchedRows));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ACTIVE.get() == this) {
+            ACTIVE.remove();
+        }
+    }
+
+    // Round trips, with a JDBC batch counting once
+    public int statements() {
+        return executions.size();
+    }
+
+    public int selects() {
+        return count("select");
+    }
+
+    public int inserts() {
+        return count("insert");
+    }
+
+    public int updates() {
+        return count("update");
+    }
+
+    public int deletes() {
+        return count("delete");
+    }
+
+    public int batches() {
+        return (int) executions.stream().filter(e -> e.batchedRows() > 1).count();
+    }
+
+    public List<Execution> executions() {
+        return Collections.unmodifiableList(executions);
+    }
+
+    private int count(String verb) {
+        return (int) executions.stream().filter(e -> e.verb().equals(verb)).count();
+    }
+
+    // 📄 Numbered statement listing for assertion messages
+    public String describe() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < executions.size(); i++) {
+            Execution execution = executions.get(i);
+            out.append(String.format("%n  %2d. %s", i + 1, execution.sql()));
+            if (execution.batchedRows() > 1) {
+                out.append("  [batch of ").append(execution.batchedRows()).append(']');
+            }
+        }
+        return out.toString();
+    }
+}